@@ -1,5 +1,7 @@
 package com.solar.management.config;
 
+import com.solar.management.security.CurrentPrincipal;
+import com.solar.management.security.PrincipalCache;
 import com.solar.management.service.UserSyncService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -19,7 +21,8 @@ import java.util.List;
 
 /**
  * Servlet filter that automatically syncs users from Keycloak JWT to database
- * Runs after JWT authentication, on every authenticated request
+ * Runs after JWT authentication, once per access token: the synced user is kept in
+ * PrincipalCache, so later requests with the same token skip the sync and its queries
  * Ensures database user record is in sync with Keycloak
  */
 @Component
@@ -28,6 +31,7 @@ import java.util.List;
 public class UserSyncFilter extends OncePerRequestFilter {
 
     private final UserSyncService userSyncService;
+    private final PrincipalCache principalCache;
 
     // Public endpoints that don't require user sync
     private static final List<String> SKIP_SYNC_PATHS = Arrays.asList(
@@ -62,7 +66,9 @@ public class UserSyncFilter extends OncePerRequestFilter {
 
                 // Best-effort sync: don't block request if sync fails
                 try {
-                    userSyncService.syncUserFromJwt(jwt);
+                    if (principalCache.get(jwt) == null) {
+                        principalCache.put(jwt, CurrentPrincipal.of(userSyncService.syncUserFromJwt(jwt)));
+                    }
                 } catch (Exception e) {
                     // Log error but don't block the request
                     log.error("Failed to sync user from JWT: {}", e.getMessage(), e);
@@ -0,0 +1,45 @@
+package com.solar.management.controller;
+
+import com.solar.management.dto.DispatchCandidateDTO;
+import com.solar.management.service.DispatchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/dispatch")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DispatchController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final DispatchService dispatchService;
+
+    /**
+     * Nearest technicians to a job site or a point, available ones first
+     * Pass either jobId, or latitude and longitude
+     */
+    @GetMapping("/nearest")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<DispatchCandidateDTO>> getNearestTechnicians(
+            @RequestParam(required = false) Long jobId,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (jobId != null) {
+            return ResponseEntity.ok(dispatchService.findNearestTechniciansForJob(jobId, limit));
+        }
+        if (latitude == null || longitude == null
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dispatchService.findNearestTechnicians(latitude, longitude, limit));
+    }
+}
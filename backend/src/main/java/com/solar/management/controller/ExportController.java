@@ -0,0 +1,54 @@
+package com.solar.management.controller;
+
+import com.solar.management.service.AccountingExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final AccountingExportService accountingExportService;
+
+    /**
+     * Export work logs, invoices and totals for a date range
+     * @param format "xlsx" (default) or "csv"
+     */
+    @GetMapping("/accounting")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportAccounting(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "xlsx") String format) {
+
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        String fileName = "accounting-" + startDate + "-to-" + endDate + (csv ? ".csv" : ".xlsx");
+
+        StreamingResponseBody body = csv
+                ? out -> accountingExportService.writeCsv(startDate, endDate, out)
+                : out -> accountingExportService.writeXlsx(startDate, endDate, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(csv ? CSV : XLSX)
+                .body(body);
+    }
+}
@@ -1,10 +1,17 @@
 package com.solar.management.controller;
 
+import com.solar.management.dto.CoordinateDTO;
+import com.solar.management.service.GeocodingBatchService;
 import com.solar.management.service.GeocodingService;
+import com.solar.management.service.GeocodingUnavailableException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -12,10 +19,14 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class GeocodingController {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final GeocodingService geocodingService;
+    private final GeocodingBatchService geocodingBatchService;
 
-    public GeocodingController(GeocodingService geocodingService) {
+    public GeocodingController(GeocodingService geocodingService, GeocodingBatchService geocodingBatchService) {
         this.geocodingService = geocodingService;
+        this.geocodingBatchService = geocodingBatchService;
     }
 
     /**
@@ -49,12 +60,151 @@ public class GeocodingController {
             Map<String, Object> result = geocodingService.reverseGeocode(latitude, longitude);
             return ResponseEntity.ok(result);
 
+        } catch (GeocodingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to reverse geocode: " + e.getMessage()));
         }
     }
 
+    /**
+     * Forward geocode an address to coordinates
+     * @param address Address
+     * @return Address information with coordinates
+     */
+    @GetMapping("/forward")
+    public ResponseEntity<?> forwardGeocode(@RequestParam String address) {
+        if (address.isBlank()) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Address is required"));
+        }
+        try {
+            return ResponseEntity.ok(geocodingService.forwardGeocode(address));
+        } catch (GeocodingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Failed to geocode address: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Address suggestions for partially typed text
+     * @param q Text typed so far
+     * @param limit Maximum number of suggestions
+     * @return Suggested addresses with coordinates
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit < 1 || limit > 50) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Limit must be between 1 and 50"));
+        }
+        return ResponseEntity.ok(geocodingService.autocomplete(q, limit));
+    }
+
+    /**
+     * Reverse geocode up to 500 coordinates in one request
+     * @param coordinates Coordinates to look up
+     * @return One result per input, in order; failed lookups carry an error
+     */
+    @PostMapping("/reverse/batch")
+    public ResponseEntity<?> reverseGeocodeBatch(@RequestBody List<CoordinateDTO> coordinates) {
+        if (coordinates.isEmpty() || coordinates.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Between 1 and " + MAX_BATCH_SIZE + " coordinates are required"));
+        }
+        for (CoordinateDTO coordinate : coordinates) {
+            if (coordinate.getLatitude() == null || coordinate.getLongitude() == null
+                    || Math.abs(coordinate.getLatitude()) > 90 || Math.abs(coordinate.getLongitude()) > 180) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Every coordinate needs a valid latitude and longitude"));
+            }
+        }
+        try {
+            return ResponseEntity.ok(geocodingBatchService.reverseGeocodeBatch(coordinates));
+        } catch (GeocodingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Forward geocode up to 500 addresses in one request
+     * @param addresses Addresses to look up
+     * @return One result per input, in order; failed lookups carry an error
+     */
+    @PostMapping("/forward/batch")
+    public ResponseEntity<?> forwardGeocodeBatch(@RequestBody List<String> addresses) {
+        if (addresses.isEmpty() || addresses.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Between 1 and " + MAX_BATCH_SIZE + " addresses are required"));
+        }
+        if (addresses.stream().anyMatch(address -> address == null || address.isBlank())) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Addresses must not be blank"));
+        }
+        try {
+            return ResponseEntity.ok(geocodingBatchService.forwardGeocodeBatch(addresses));
+        } catch (GeocodingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Start filling in missing addresses of tracked location points in a time range (admin endpoint)
+     */
+    @PostMapping("/backfill/location-tracking")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfillLocationTracking(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        if (!to.isAfter(from)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "to must be after from"));
+        }
+        if (!geocodingBatchService.startLocationTrackingBackfill(from, to)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(geocodingBatchService.getBackfillStatus());
+        }
+        return ResponseEntity.accepted().body(geocodingBatchService.getBackfillStatus());
+    }
+
+    /**
+     * Start filling in coordinates of locations saved without them (admin endpoint)
+     */
+    @PostMapping("/backfill/locations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfillLocations() {
+        if (!geocodingBatchService.startLocationBackfill()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(geocodingBatchService.getBackfillStatus());
+        }
+        return ResponseEntity.accepted().body(geocodingBatchService.getBackfillStatus());
+    }
+
+    /**
+     * Progress of the current or last backfill
+     */
+    @GetMapping("/backfill/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBackfillStatus() {
+        return ResponseEntity.ok(geocodingBatchService.getBackfillStatus());
+    }
+
+    /**
+     * Geocoding cache hit ratio, upstream calls and latency
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(geocodingService.getCacheStats());
+    }
+
     /**
      * Clean up expired cache entries (admin endpoint)
      * @return Number of deleted entries
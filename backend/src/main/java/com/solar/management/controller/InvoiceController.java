@@ -1,6 +1,8 @@
 package com.solar.management.controller;
 
+import com.solar.management.entity.EmailOutboxMessage;
 import com.solar.management.entity.Invoice;
+import com.solar.management.service.InvoiceEmailService;
 import com.solar.management.service.InvoiceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.FileSystemResource;
@@ -25,6 +27,7 @@ import java.util.List;
 public class InvoiceController {
     
     private final InvoiceService invoiceService;
+    private final InvoiceEmailService invoiceEmailService;
     
     /**
      * Generate a new invoice for a technician for a date range
@@ -127,4 +130,22 @@ public class InvoiceController {
 
         return ResponseEntity.ok(invoice);
     }
+
+    /**
+     * List invoice emails that exhausted their delivery attempts
+     */
+    @GetMapping("/emails/dead-letters")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<EmailOutboxMessage>> getDeadLetterEmails() {
+        return ResponseEntity.ok(invoiceEmailService.getDeadLetters());
+    }
+
+    /**
+     * Requeue a dead-lettered invoice email
+     */
+    @PostMapping("/emails/{messageId}/retry")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<EmailOutboxMessage> retryDeadLetterEmail(@PathVariable Long messageId) {
+        return ResponseEntity.ok(invoiceEmailService.retryDeadLetter(messageId));
+    }
 }
@@ -1,5 +1,6 @@
 package com.solar.management.controller;
 
+import com.solar.management.dto.TravelDistanceReportDTO;
 import com.solar.management.entity.Job;
 import com.solar.management.entity.JobImage;
 import com.solar.management.entity.TravelLog;
@@ -8,6 +9,7 @@ import com.solar.management.service.JobService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -127,6 +130,18 @@ public class JobController {
         return new ResponseEntity<>(savedLog, HttpStatus.CREATED);
     }
 
+    @GetMapping("/travel/distance")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<TravelDistanceReportDTO> getTravelDistance(
+            @RequestParam Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (end.isBefore(start)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(jobService.getTravelDistanceReportWithAuth(userId, start, end));
+    }
+
     @GetMapping("/{id}/travel")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<TravelLog>> getJobTravelLogs(@PathVariable Long id) {
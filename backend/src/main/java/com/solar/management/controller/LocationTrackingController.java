@@ -1,16 +1,25 @@
 package com.solar.management.controller;
 
+import com.solar.management.dto.FleetPositionDTO;
+import com.solar.management.dto.LocationPointDTO;
+import com.solar.management.dto.TrackPointDTO;
 import com.solar.management.entity.LocationTracking;
+import com.solar.management.entity.LocationTripSummary;
+import com.solar.management.service.FleetStreamService;
+import com.solar.management.service.LocationBufferFullException;
 import com.solar.management.service.LocationTrackingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/location-tracking")
@@ -19,17 +28,20 @@ import java.util.List;
 public class LocationTrackingController {
     
     private final LocationTrackingService locationTrackingService;
+    private final FleetStreamService fleetStreamService;
     
     @PostMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<LocationTracking> recordLocation(@RequestBody LocationTracking locationTracking) {
-        LocationTracking saved = locationTrackingService.recordLocation(locationTracking);
-        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+    public ResponseEntity<Void> recordLocation(@RequestBody LocationTracking locationTracking) {
+        if (!locationTrackingService.recordLocation(locationTracking)) {
+            throw new LocationBufferFullException("Location buffer is full, retry later");
+        }
+        return ResponseEntity.accepted().build();
     }
     
     @PostMapping("/user/{userId}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<LocationTracking> recordLocationSimple(
+    public ResponseEntity<Void> recordLocationSimple(
             @PathVariable Long userId,
             @RequestParam Double latitude,
             @RequestParam Double longitude,
@@ -39,39 +51,121 @@ public class LocationTrackingController {
             @RequestParam(required = false) Double heading,
             @RequestParam(required = false) String deviceId) {
 
-        LocationTracking saved = locationTrackingService.recordLocationByUserIdWithAuth(
+        boolean queued = locationTrackingService.recordLocationByUserIdWithAuth(
                 userId, latitude, longitude, accuracy, altitude, speed, heading, deviceId);
-        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        if (!queued) {
+            throw new LocationBufferFullException("Location buffer is full, retry later");
+        }
+        return ResponseEntity.accepted().build();
     }
     
+    /**
+     * Record many points in one request, including fixes buffered while the device was offline
+     * Duplicate (deviceId, timestamp) points are ignored, so clients can safely resend a batch;
+     * points without a timestamp or with invalid coordinates are not accepted
+     */
+    @PostMapping("/user/{userId}/batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Integer>> recordLocationBatch(
+            @PathVariable Long userId,
+            @RequestBody List<LocationPointDTO> points) {
+
+        int accepted = locationTrackingService.recordLocationBatchWithAuth(userId, points);
+        return new ResponseEntity<>(Map.of("received", points.size(), "accepted", accepted), HttpStatus.ACCEPTED);
+    }
+
     @GetMapping("/user/{userId}/latest")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<LocationTracking> getLatestLocation(@PathVariable Long userId) {
-        LocationTracking latest = locationTrackingService.getLatestLocationWithAuth(userId);
+    public ResponseEntity<FleetPositionDTO> getLatestLocation(@PathVariable Long userId) {
+        FleetPositionDTO latest = locationTrackingService.getLatestLocationWithAuth(userId);
         if (latest == null) {
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok(latest);
     }
     
+    /**
+     * Latest position of every technician in one response, for the dispatcher fleet map
+     */
+    @GetMapping("/fleet")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<FleetPositionDTO>> getFleetPositions() {
+        return ResponseEntity.ok(locationTrackingService.getFleetPositions());
+    }
+
+    /**
+     * Live fleet positions over Server-Sent Events: a "snapshot" event, then coalesced "positions" updates
+     */
+    @GetMapping(value = "/fleet/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public SseEmitter streamFleetPositions() {
+        return fleetStreamService.subscribe();
+    }
+
+    /**
+     * Location history for a user
+     * Covers the last app.location.history.default-days days, archived days included. Without options,
+     * returns every fix newest first. With any of tolerance (Douglas-Peucker, metres), bucketSeconds
+     * (time-bucket downsampling) or maxPoints, returns a simplified route oldest first as lightweight points.
+     */
     @GetMapping("/user/{userId}/history")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<LocationTracking>> getUserLocationHistory(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserLocationHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Double tolerance,
+            @RequestParam(required = false) Integer bucketSeconds,
+            @RequestParam(required = false) Integer maxPoints) {
+
+        if (tolerance != null || bucketSeconds != null || maxPoints != null) {
+            if (!validSimplification(tolerance, bucketSeconds, maxPoints)) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<TrackPointDTO> route = locationTrackingService.getSimplifiedRouteWithAuth(
+                    userId, null, null, tolerance, bucketSeconds, maxPoints);
+            return ResponseEntity.ok(route);
+        }
         List<LocationTracking> history = locationTrackingService.getUserLocationHistoryWithAuth(userId);
         return ResponseEntity.ok(history);
     }
-    
+
+    /**
+     * Location history for a user between two times; accepts the same simplification options as /history
+     */
     @GetMapping("/user/{userId}/history/range")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<LocationTracking>> getUserLocationHistoryBetweenDates(
+    public ResponseEntity<?> getUserLocationHistoryBetweenDates(
             @PathVariable Long userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) Double tolerance,
+            @RequestParam(required = false) Integer bucketSeconds,
+            @RequestParam(required = false) Integer maxPoints) {
 
+        if (tolerance != null || bucketSeconds != null || maxPoints != null) {
+            if (!validSimplification(tolerance, bucketSeconds, maxPoints)) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<TrackPointDTO> route = locationTrackingService.getSimplifiedRouteWithAuth(
+                    userId, start, end, tolerance, bucketSeconds, maxPoints);
+            return ResponseEntity.ok(route);
+        }
         List<LocationTracking> history = locationTrackingService.getUserLocationHistoryBetweenDatesWithAuth(userId, start, end);
         return ResponseEntity.ok(history);
     }
     
+    /**
+     * Per-trip summaries for a user, including periods whose raw points are past retention
+     */
+    @GetMapping("/user/{userId}/trips")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<LocationTripSummary>> getTripSummaries(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+
+        return ResponseEntity.ok(locationTrackingService.getTripSummariesWithAuth(userId, start, end));
+    }
+
     @GetMapping("/distance")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Double> calculateDistance(
@@ -83,4 +177,10 @@ public class LocationTrackingController {
         Double distance = locationTrackingService.calculateDistance(lat1, lon1, lat2, lon2);
         return ResponseEntity.ok(distance);
     }
+
+    private boolean validSimplification(Double tolerance, Integer bucketSeconds, Integer maxPoints) {
+        return (tolerance == null || tolerance >= 0)
+                && (bucketSeconds == null || bucketSeconds > 0)
+                && (maxPoints == null || maxPoints >= 2);
+    }
 }
@@ -1,6 +1,8 @@
 package com.solar.management.controller;
 
 import com.solar.management.entity.User;
+import com.solar.management.security.CachingJwtDecoder;
+import com.solar.management.security.JwkSetCache;
 import com.solar.management.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -11,6 +13,7 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -19,6 +22,19 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final CachingJwtDecoder jwtDecoder;
+    private final JwkSetCache jwkSetCache;
+
+    /**
+     * Token verification latency, token cache hits and JWK set freshness
+     */
+    @GetMapping("/auth/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getAuthStats() {
+        Map<String, Object> stats = jwtDecoder.getStats();
+        stats.putAll(jwkSetCache.getStats());
+        return ResponseEntity.ok(stats);
+    }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
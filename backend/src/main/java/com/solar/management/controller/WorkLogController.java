@@ -1,7 +1,9 @@
 package com.solar.management.controller;
 
 import com.solar.management.entity.WorkLog;
+import com.solar.management.entity.WorkLogSuggestion;
 import com.solar.management.service.WorkLogService;
+import com.solar.management.service.WorkLogSuggestionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -19,6 +21,7 @@ import java.util.List;
 public class WorkLogController {
 
     private final WorkLogService workLogService;
+    private final WorkLogSuggestionService workLogSuggestionService;
     
     /**
      * Create a new work log
@@ -113,6 +116,50 @@ public class WorkLogController {
         }
     }
 
+    /**
+     * Get all work log time corrections awaiting review
+     */
+    @GetMapping("/suggestions")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<WorkLogSuggestion>> getPendingSuggestions() {
+        return ResponseEntity.ok(workLogSuggestionService.getPendingSuggestions());
+    }
+
+    /**
+     * Get a user's work log time corrections awaiting review with access validation
+     */
+    @GetMapping("/suggestions/user/{userId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<WorkLogSuggestion>> getPendingSuggestionsByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(workLogSuggestionService.getPendingSuggestionsForUserWithAuth(userId));
+    }
+
+    /**
+     * Accept a suggestion, applying its start and end times to the work log
+     */
+    @PostMapping("/suggestions/{id}/accept")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> acceptSuggestion(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(workLogSuggestionService.acceptSuggestion(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Reject a suggestion, leaving the work log unchanged
+     */
+    @PostMapping("/suggestions/{id}/reject")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> rejectSuggestion(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(workLogSuggestionService.rejectSuggestion(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
     /**
      * Delete work log
      * DISABLED: Work logs can only be deleted through the parent Job.
@@ -0,0 +1,16 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A latitude/longitude pair, e.g. one entry of a batch geocoding request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoordinateDTO {
+    private Double latitude;
+    private Double longitude;
+}
@@ -0,0 +1,30 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A technician near a job site, with travel estimate and today's schedule, for urgent dispatch
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchCandidateDTO {
+    private Long userId;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime positionTimestamp;
+    private Double distanceKm; // straight line
+    private Integer etaMinutes;
+    private Boolean available;
+    private String currentJobNumber;
+    private String nextJobNumber;
+    private LocalDateTime nextJobStart;
+    private Integer jobsToday;
+}
@@ -0,0 +1,25 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest known position of one user, as shown on the dispatcher fleet map
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetPositionDTO {
+    private Long userId;
+    private Double latitude;
+    private Double longitude;
+    private Double accuracy;
+    private Double speed;
+    private Double heading;
+    private LocalDateTime timestamp;
+}
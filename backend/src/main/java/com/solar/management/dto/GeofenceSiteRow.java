@@ -0,0 +1,17 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One (active job, assigned technician) pair with the job site's position, for building the geofence index
+ */
+@Data
+@AllArgsConstructor
+public class GeofenceSiteRow {
+    private Long jobId;
+    private Double latitude;
+    private Double longitude;
+    private Double geofenceRadius;
+    private Long technicianId;
+}
@@ -0,0 +1,28 @@
+package com.solar.management.dto;
+
+import com.solar.management.entity.Invoice;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat projection of an invoice for accounting exports
+ */
+@Data
+@AllArgsConstructor
+public class InvoiceExportRow {
+    private Long invoiceId;
+    private String invoiceNumber;
+    private LocalDate invoiceDate;
+    private String technicianName;
+    private LocalDate periodStartDate;
+    private LocalDate periodEndDate;
+    private Integer weekNumber;
+    private Invoice.InvoiceStatus status;
+    private BigDecimal subtotal;
+    private BigDecimal gstAmount;
+    private BigDecimal totalAmount;
+    private LocalDate paidDate;
+}
@@ -0,0 +1,14 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One (job, assigned technician) pair, for building the job access index
+ */
+@Data
+@AllArgsConstructor
+public class JobAssignmentRow {
+    private Long jobId;
+    private Long technicianId;
+}
@@ -0,0 +1,28 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single location fix as posted by a device, used for batched ingest
+ * userId is always taken from the request path, never from the payload
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPointDTO {
+    private Long userId;
+    private Double latitude;
+    private Double longitude;
+    private Double accuracy; // in meters
+    private Double altitude;
+    private Double speed; // in m/s
+    private Double heading; // bearing in degrees
+    private LocalDateTime timestamp; // device time of the fix; defaults to receive time
+    private String deviceId;
+}
@@ -0,0 +1,20 @@
+package com.solar.management.dto;
+
+import com.solar.management.entity.Job;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One open job of a technician within a time window, for dispatch ranking
+ */
+@Data
+@AllArgsConstructor
+public class TechnicianScheduleRow {
+    private Long technicianId;
+    private String jobNumber;
+    private Job.JobStatus status;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
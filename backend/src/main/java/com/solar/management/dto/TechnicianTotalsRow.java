@@ -0,0 +1,19 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-technician work log totals for a date range, computed with a single aggregate query
+ */
+@Data
+@AllArgsConstructor
+public class TechnicianTotalsRow {
+    private Long technicianId;
+    private String technicianName;
+    private Long workLogCount;
+    private BigDecimal totalHours;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,22 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single point of a technician's route, without the entity overhead of LocationTracking
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackPointDTO {
+    private Double latitude;
+    private Double longitude;
+    private Double accuracy;
+    private Double speed;
+    private Double heading;
+    private LocalDateTime timestamp;
+}
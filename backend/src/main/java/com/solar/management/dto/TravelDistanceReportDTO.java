@@ -0,0 +1,24 @@
+package com.solar.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Travel totals for one user over a period, from recorded travel logs
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelDistanceReportDTO {
+    private Long userId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BigDecimal totalDistance; // in kilometers
+    private BigDecimal totalFuelCost;
+}
@@ -0,0 +1,32 @@
+package com.solar.management.dto;
+
+import com.solar.management.entity.WorkLog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Flat projection of a work log for accounting exports
+ * Built with a JPQL constructor expression so rows are never hydrated as entities
+ */
+@Data
+@AllArgsConstructor
+public class WorkLogExportRow {
+    private Long workLogId;
+    private LocalDate workDate;
+    private Long technicianId;
+    private String technicianName;
+    private String jobNumber;
+    private String jobAddress;
+    private WorkLog.WorkType workType;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private BigDecimal hoursWorked;
+    private BigDecimal hourlyRate;
+    private BigDecimal totalAmount;
+    private Boolean invoiced;
+    private String invoiceNumber;
+}
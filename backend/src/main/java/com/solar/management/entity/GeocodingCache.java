@@ -35,6 +35,9 @@ public class GeocodingCache {
     @Column(length = 100)
     private String country;
 
+    @Column(length = 12)
+    private String geohash;
+
     @Column(name = "cached_at", nullable = false)
     private LocalDateTime cachedAt;
 
@@ -124,6 +127,14 @@ public class GeocodingCache {
         this.country = country;
     }
 
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
     public LocalDateTime getCachedAt() {
         return cachedAt;
     }
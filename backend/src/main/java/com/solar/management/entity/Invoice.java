@@ -1,5 +1,6 @@
 package com.solar.management.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -87,6 +89,7 @@ public class Invoice {
     private String accountNumber;
     
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL)
+    @JsonIgnore
     private Set<WorkLog> workLogs = new HashSet<>();
     
     @Column(nullable = false)
@@ -127,16 +130,26 @@ public class Invoice {
         CANCELLED
     }
     
+    /**
+     * Attach work logs to this invoice and refresh the denormalized subtotal.
+     * Totals are maintained here, when the collection is built, so that lifecycle
+     * callbacks never need to initialize the lazy workLogs collection.
+     */
+    public void attachWorkLogs(Collection<WorkLog> logs) {
+        this.workLogs = new HashSet<>(logs);
+        this.subtotal = logs.stream()
+                .map(WorkLog::getTotalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        calculateTotals();
+    }
+
+    /**
+     * Derive GST and total from the stored subtotal.
+     * Never touches workLogs, so status or bill-to updates don't load the collection.
+     */
     @PrePersist
     @PreUpdate
     public void calculateTotals() {
-        // Calculate from work logs if available
-        if (workLogs != null && !workLogs.isEmpty()) {
-            this.subtotal = workLogs.stream()
-                    .map(WorkLog::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-        }
-        
         if (subtotal != null && gstRate != null) {
             this.gstAmount = subtotal.multiply(gstRate);
             this.totalAmount = subtotal.add(gstAmount);
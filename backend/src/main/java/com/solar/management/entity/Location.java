@@ -54,6 +54,9 @@ public class Location {
     
     @Column(nullable = false)
     private Double longitude;
+
+    @Column
+    private Double geofenceRadius; // in meters; app.geofence.default-radius-meters when null
     
     @Column
     private String contactPerson;
@@ -0,0 +1,86 @@
+package com.solar.management.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rollup of one trip's raw location points, kept after the raw points age out of retention
+ * A trip is a run of points for one user with no gap longer than the configured trip gap
+ */
+@Entity
+@Table(name = "location_trip_summaries", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_location_trip_user_start", columnNames = {"user_id", "start_time"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@lombok.EqualsAndHashCode(exclude = {"user"})
+@lombok.ToString(exclude = {"user"})
+public class LocationTripSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long userId;
+
+    @Column
+    private String deviceId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(nullable = false)
+    private Double startLatitude;
+
+    @Column(nullable = false)
+    private Double startLongitude;
+
+    @Column(nullable = false)
+    private Double endLatitude;
+
+    @Column(nullable = false)
+    private Double endLongitude;
+
+    @Column(nullable = false)
+    private Double minLatitude;
+
+    @Column(nullable = false)
+    private Double maxLatitude;
+
+    @Column(nullable = false)
+    private Double minLongitude;
+
+    @Column(nullable = false)
+    private Double maxLongitude;
+
+    @Column(nullable = false)
+    private Integer pointCount;
+
+    @Column(nullable = false)
+    private Double distanceKm;
+
+    @Column
+    private Double maxSpeed; // in m/s
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
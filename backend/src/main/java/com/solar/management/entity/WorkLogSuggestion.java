@@ -0,0 +1,92 @@
+package com.solar.management.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Proposed correction of a WorkLog's start and end times, from the time a technician
+ * actually spent inside the job site's geofence. Applied to the work log only when accepted.
+ */
+@Entity
+@Table(name = "work_log_suggestions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@lombok.EqualsAndHashCode(exclude = {"workLog"})
+@lombok.ToString(exclude = {"workLog"})
+public class WorkLogSuggestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "work_log_id", nullable = false)
+    @JsonIgnore
+    private WorkLog workLog;
+
+    @Column(name = "work_log_id", insertable = false, updatable = false)
+    private Long workLogId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false)
+    private LocalDate workDate;
+
+    @Column(nullable = false)
+    private LocalTime currentStartTime;
+
+    @Column(nullable = false)
+    private LocalTime currentEndTime;
+
+    @Column(nullable = false)
+    private LocalTime suggestedStartTime;
+
+    @Column(nullable = false)
+    private LocalTime suggestedEndTime;
+
+    @Column(nullable = false)
+    private LocalDateTime firstArrival;
+
+    @Column(nullable = false)
+    private LocalDateTime lastDeparture;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SuggestionStatus status;
+
+    @Column
+    private String reviewedBy;
+
+    @Column
+    private LocalDateTime reviewedAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum SuggestionStatus {
+        PENDING,
+        ACCEPTED,
+        REJECTED
+    }
+}
@@ -0,0 +1,40 @@
+package com.solar.management.repository;
+
+import com.solar.management.entity.EmailOutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    /**
+     * Lock a batch of due messages, skipping rows already claimed by another worker or node
+     * (lock timeout -2 is Hibernate's SKIP LOCKED)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM EmailOutboxMessage m WHERE m.status = com.solar.management.entity.EmailOutboxMessage$EmailStatus.PENDING " +
+           "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt ASC")
+    List<EmailOutboxMessage> findDueForDelivery(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Return messages stuck in SENDING (e.g. after a crash mid-batch) to the queue
+     */
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = com.solar.management.entity.EmailOutboxMessage$EmailStatus.PENDING " +
+           "WHERE m.status = com.solar.management.entity.EmailOutboxMessage$EmailStatus.SENDING AND m.updatedAt < :cutoff")
+    int releaseStaleClaims(@Param("cutoff") LocalDateTime cutoff);
+
+    List<EmailOutboxMessage> findByStatus(EmailOutboxMessage.EmailStatus status);
+}
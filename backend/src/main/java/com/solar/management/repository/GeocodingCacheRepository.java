@@ -1,17 +1,21 @@
 package com.solar.management.repository;
 
 import com.solar.management.entity.GeocodingCache;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface GeocodingCacheRepository extends JpaRepository<GeocodingCache, Long> {
+public interface GeocodingCacheRepository extends JpaRepository<GeocodingCache, Long>, GeocodingCacheRepositoryCustom {
 
     /**
      * Find cached geocoding result by coordinates
@@ -21,6 +25,37 @@ public interface GeocodingCacheRepository extends JpaRepository<GeocodingCache,
      */
     Optional<GeocodingCache> findByLatitudeAndLongitude(Double latitude, Double longitude);
 
+    /**
+     * Find unexpired cached results in any of the given geohash cells
+     * @param cells Geohash cells, e.g. a cell and its neighbours
+     * @param now Current timestamp
+     * @return Cached results in those cells
+     */
+    @Query("SELECT g FROM GeocodingCache g WHERE g.geohash IN :cells AND g.expiresAt > :now")
+    List<GeocodingCache> findValidByGeohashIn(@Param("cells") Collection<String> cells,
+                                              @Param("now") LocalDateTime now);
+
+    /**
+     * Find cached results not yet assigned a geohash cell
+     */
+    List<GeocodingCache> findTop500ByGeohashIsNull();
+
+    /**
+     * Entries expiring within a window, soonest first, for refresh-ahead
+     */
+    List<GeocodingCache> findByExpiresAtBetweenOrderByExpiresAtAsc(LocalDateTime from, LocalDateTime to,
+                                                                   Pageable pageable);
+
+    /**
+     * Delete up to limit entries that expired before the given time
+     * @return Number of deleted entries
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM geocoding_cache WHERE id IN " +
+                   "(SELECT id FROM geocoding_cache WHERE expires_at < :before LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
     /**
      * Delete all expired cache entries
      * @param now Current timestamp
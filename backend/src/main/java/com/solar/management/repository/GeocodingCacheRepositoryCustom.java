@@ -0,0 +1,18 @@
+package com.solar.management.repository;
+
+import com.solar.management.entity.GeocodingCache;
+
+import java.util.List;
+
+/**
+ * JDBC-backed bulk operations for geocoding_cache
+ */
+public interface GeocodingCacheRepositoryCustom {
+
+    /**
+     * Insert cache entries with JDBC batching
+     * Entries whose coordinates are already cached are skipped
+     * @return Number of entries submitted to the database
+     */
+    int batchInsert(List<GeocodingCache> entries);
+}
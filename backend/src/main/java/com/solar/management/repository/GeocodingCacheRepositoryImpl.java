@@ -0,0 +1,44 @@
+package com.solar.management.repository;
+
+import com.solar.management.entity.GeocodingCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Implementation of GeocodingCacheRepositoryCustom, picked up by Spring Data by naming convention
+ */
+@RequiredArgsConstructor
+public class GeocodingCacheRepositoryImpl implements GeocodingCacheRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO geocoding_cache (latitude, longitude, geohash, formatted_address, city, state, " +
+            "postal_code, country, cached_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (latitude, longitude) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchInsert(List<GeocodingCache> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setDouble(1, entry.getLatitude());
+            ps.setDouble(2, entry.getLongitude());
+            ps.setString(3, entry.getGeohash());
+            ps.setString(4, entry.getFormattedAddress());
+            ps.setString(5, entry.getCity());
+            ps.setString(6, entry.getState());
+            ps.setString(7, entry.getPostalCode());
+            ps.setString(8, entry.getCountry());
+            ps.setTimestamp(9, Timestamp.valueOf(entry.getCachedAt()));
+            ps.setTimestamp(10, Timestamp.valueOf(entry.getExpiresAt()));
+        });
+        return entries.size();
+    }
+}
@@ -1,15 +1,20 @@
 package com.solar.management.repository;
 
+import com.solar.management.dto.InvoiceExportRow;
 import com.solar.management.entity.Invoice;
 import com.solar.management.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
@@ -33,4 +38,16 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
     @Query("SELECT MAX(i.invoiceNumber) FROM Invoice i")
     String findLatestInvoiceNumber();
+
+    /**
+     * Stream invoices dated in a range as flat export rows
+     * Must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.solar.management.dto.InvoiceExportRow(" +
+           "i.id, i.invoiceNumber, i.invoiceDate, i.technicianName, i.periodStartDate, i.periodEndDate, " +
+           "i.weekNumber, i.status, i.subtotal, i.gstAmount, i.totalAmount, i.paidDate) " +
+           "FROM Invoice i WHERE i.invoiceDate BETWEEN :startDate AND :endDate ORDER BY i.invoiceDate ASC, i.id ASC")
+    Stream<InvoiceExportRow> streamExportRows(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
 }
@@ -1,5 +1,8 @@
 package com.solar.management.repository;
 
+import com.solar.management.dto.GeofenceSiteRow;
+import com.solar.management.dto.JobAssignmentRow;
+import com.solar.management.dto.TechnicianScheduleRow;
 import com.solar.management.entity.Job;
 import com.solar.management.entity.User;
 import org.springframework.data.domain.Page;
@@ -10,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +28,13 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     @Query("SELECT j FROM Job j JOIN j.assignedTechnicians t WHERE t = :user AND j.status IN :statuses")
     List<Job> findByAssignedToAndStatusIn(@Param("user") User user, @Param("statuses") List<Job.JobStatus> statuses);
 
+    @Query("SELECT j FROM Job j JOIN j.assignedTechnicians t WHERE t.id = :userId")
+    List<Job> findByAssignedTechnicianId(@Param("userId") Long userId);
+
+    @Query("SELECT j FROM Job j JOIN j.assignedTechnicians t WHERE t.id = :userId AND j.status IN :statuses")
+    List<Job> findByAssignedTechnicianIdAndStatusIn(@Param("userId") Long userId,
+                                                    @Param("statuses") List<Job.JobStatus> statuses);
+
     @Query("SELECT j FROM Job j WHERE j.startTime BETWEEN :start AND :end")
     List<Job> findJobsBetweenDates(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
@@ -34,4 +45,41 @@ public interface JobRepository extends JpaRepository<Job, Long> {
             @Param("clientName") String clientName,
             @Param("user") User user,
             Pageable pageable);
+
+    @Query("SELECT j FROM Job j JOIN j.assignedTechnicians t WHERE t.id = :userId AND LOWER(j.clientName) LIKE LOWER(CONCAT('%', :clientName, '%'))")
+    Page<Job> findByClientNameContainingIgnoreCaseAndAssignedTechnicianId(
+            @Param("clientName") String clientName,
+            @Param("userId") Long userId,
+            Pageable pageable);
+
+    @Query("SELECT new com.solar.management.dto.JobAssignmentRow(j.id, t.id) FROM Job j JOIN j.assignedTechnicians t")
+    List<JobAssignmentRow> findAllAssignments();
+
+    /**
+     * Open jobs of the given technicians starting in [from, to), one row per (technician, job), in start order
+     */
+    @Query("SELECT new com.solar.management.dto.TechnicianScheduleRow(t.id, j.jobNumber, j.status, j.startTime, j.endTime) " +
+           "FROM Job j JOIN j.assignedTechnicians t " +
+           "WHERE t.id IN :technicianIds AND j.startTime >= :from AND j.startTime < :to AND j.status NOT IN :closedStatuses " +
+           "ORDER BY j.startTime")
+    List<TechnicianScheduleRow> findSchedules(@Param("technicianIds") Collection<Long> technicianIds,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("closedStatuses") List<Job.JobStatus> closedStatuses);
+
+    @Query("SELECT COUNT(j) > 0 FROM Job j JOIN j.assignedTechnicians t WHERE j.id = :jobId AND t.id = :userId")
+    boolean existsAssignment(@Param("jobId") Long jobId, @Param("userId") Long userId);
+
+    @Query("SELECT new com.solar.management.dto.GeofenceSiteRow(j.id, l.latitude, l.longitude, l.geofenceRadius, t.id) " +
+           "FROM Job j JOIN j.location l JOIN j.assignedTechnicians t " +
+           "WHERE j.status IN :statuses AND l.active = true")
+    List<GeofenceSiteRow> findGeofenceSites(@Param("statuses") List<Job.JobStatus> statuses);
+
+    @Query("SELECT j FROM Job j JOIN j.assignedTechnicians t WHERE t.id = :userId AND j.id <> :excludeJobId " +
+           "AND j.status = com.solar.management.entity.Job$JobStatus.SCHEDULED AND j.startTime >= :from " +
+           "AND j.startTime < :to ORDER BY j.startTime ASC LIMIT 1")
+    Optional<Job> findNextScheduledJobForTechnician(@Param("userId") Long userId,
+                                                    @Param("excludeJobId") Long excludeJobId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
 }
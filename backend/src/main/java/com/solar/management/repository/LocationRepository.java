@@ -2,6 +2,7 @@ package com.solar.management.repository;
 
 import com.solar.management.entity.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,8 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
     List<Location> findByType(Location.LocationType type);
     List<Location> findByActive(Boolean active);
     Optional<Location> findByName(String name);
+
+    // Locations saved before their address was geocoded
+    @Query("SELECT l FROM Location l WHERE l.latitude = 0 AND l.longitude = 0")
+    List<Location> findWithoutCoordinates();
 }
@@ -1,25 +1,50 @@
 package com.solar.management.repository;
 
+import com.solar.management.dto.TrackPointDTO;
 import com.solar.management.entity.LocationTracking;
 import com.solar.management.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface LocationTrackingRepository extends JpaRepository<LocationTracking, Long> {
-    List<LocationTracking> findByUserOrderByTimestampDesc(User user);
-
+public interface LocationTrackingRepository extends JpaRepository<LocationTracking, Long>, LocationTrackingRepositoryCustom {
     @Query("SELECT l FROM LocationTracking l WHERE l.user = :user AND l.timestamp BETWEEN :start AND :end ORDER BY l.timestamp DESC")
     List<LocationTracking> findByUserAndTimestampBetween(@Param("user") User user,
                                                           @Param("start") LocalDateTime start,
                                                           @Param("end") LocalDateTime end);
 
-    @Query("SELECT l FROM LocationTracking l WHERE l.user = :user ORDER BY l.timestamp DESC LIMIT 1")
-    Optional<LocationTracking> findLatestLocationForUser(@Param("user") User user);
+    /**
+     * Newest point of a user at or after since; the bound lets the query skip older partitions
+     */
+    @Query("SELECT new com.solar.management.dto.TrackPointDTO(l.latitude, l.longitude, l.accuracy, l.speed, l.heading, l.timestamp) " +
+           "FROM LocationTracking l WHERE l.user.id = :userId AND l.timestamp >= :since ORDER BY l.timestamp DESC LIMIT 1")
+    Optional<TrackPointDTO> findLatestTrackPointSince(@Param("userId") Long userId,
+                                                      @Param("since") LocalDateTime since);
+
+    /**
+     * Stream a user's route between two times in time order as lightweight points
+     * Must be consumed inside a transaction; rows are fetched from a server-side cursor 500 at a time
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.solar.management.dto.TrackPointDTO(l.latitude, l.longitude, l.accuracy, l.speed, l.heading, l.timestamp) " +
+           "FROM LocationTracking l WHERE l.user.id = :userId AND l.timestamp BETWEEN :start AND :end ORDER BY l.timestamp ASC")
+    Stream<TrackPointDTO> streamTrackPointsBetween(@Param("userId") Long userId,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.solar.management.dto.TrackPointDTO(l.latitude, l.longitude, l.accuracy, l.speed, l.heading, l.timestamp) " +
+           "FROM LocationTracking l WHERE l.user.id = :userId AND l.timestamp >= :start AND l.timestamp < :end ORDER BY l.timestamp ASC")
+    List<TrackPointDTO> findTrackPointsInRange(@Param("userId") Long userId,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
 }
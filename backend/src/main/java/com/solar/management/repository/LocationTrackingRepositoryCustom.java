@@ -0,0 +1,82 @@
+package com.solar.management.repository;
+
+import com.solar.management.dto.CoordinateDTO;
+import com.solar.management.dto.LocationPointDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-backed bulk operations for location_tracking that bypass per-entity persistence
+ */
+public interface LocationTrackingRepositoryCustom {
+
+    /**
+     * Insert location points with JDBC batching
+     * Rows that collide with an existing (user, device, timestamp) are skipped
+     * @param points Points with userId set
+     * @return Number of points submitted to the database
+     */
+    int batchInsert(List<LocationPointDTO> points);
+
+    /**
+     * Latest fix for every user with a fix since the given time, one row per user
+     * @return Points with userId, coordinates, accuracy, speed, heading, timestamp and deviceId set
+     */
+    List<LocationPointDTO> findLatestPositions(LocalDateTime since);
+
+    /**
+     * Whether location_tracking is range-partitioned (see migration 005)
+     */
+    boolean isPartitioned();
+
+    /**
+     * Create the partition for a month if it doesn't exist
+     */
+    void createMonthlyPartition(YearMonth month);
+
+    /**
+     * Months that currently have a partition, oldest first; excludes the default partition
+     */
+    List<YearMonth> findMonthlyPartitions();
+
+    /**
+     * Drop a month's partition together with its rows and indexes
+     */
+    void dropMonthlyPartition(YearMonth month);
+
+    /**
+     * Summarise raw points in [from, to) into location_trip_summaries
+     * A new trip starts whenever consecutive points of a user are more than tripGapMinutes apart.
+     * Trips already summarised (same user and start time) are skipped, so reruns are safe.
+     * @return Number of trip summaries inserted
+     */
+    int rollupTrips(LocalDateTime from, LocalDateTime to, int tripGapMinutes);
+
+    /**
+     * Users with points in [from, to), and the days on which they have points
+     */
+    Map<Long, List<LocalDate>> findUserDays(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Delete up to limit raw points older than cutoff; used when the table is not partitioned
+     * @return Number of rows deleted
+     */
+    int deleteOlderThan(LocalDateTime cutoff, int limit);
+
+    /**
+     * Distinct coordinates, rounded to 5 decimal places, of points in [from, to) without an address
+     * Ordered by (latitude, longitude) and starting after the given pair, for keyset paging
+     */
+    List<CoordinateDTO> findUngeocodedCoordinates(LocalDateTime from, LocalDateTime to,
+                                                  CoordinateDTO after, int limit);
+
+    /**
+     * Set the address of points in [from, to) without one, matched on coordinates rounded to 5 decimal places
+     * @return Number of rows updated
+     */
+    int updateAddresses(LocalDateTime from, LocalDateTime to, Map<CoordinateDTO, String> addresses);
+}
@@ -0,0 +1,226 @@
+package com.solar.management.repository;
+
+import com.solar.management.dto.CoordinateDTO;
+import com.solar.management.dto.LocationPointDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of LocationTrackingRepositoryCustom, picked up by Spring Data by naming convention
+ */
+@RequiredArgsConstructor
+public class LocationTrackingRepositoryImpl implements LocationTrackingRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    // ON CONFLICT without a target skips rows violating uk_location_tracking_user_device_ts, which the
+    // migrations create NULLS NOT DISTINCT so points without a device id are deduplicated too
+    private static final String INSERT_SQL =
+            "INSERT INTO location_tracking (user_id, latitude, longitude, accuracy, altitude, speed, heading, " +
+            "timestamp, device_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    // DISTINCT ON keeps the first row per user in ORDER BY, i.e. the newest; served by idx_user_timestamp
+    private static final String LATEST_POSITIONS_SQL =
+            "SELECT DISTINCT ON (user_id) user_id, latitude, longitude, accuracy, speed, heading, timestamp, device_id " +
+            "FROM location_tracking WHERE timestamp >= ? ORDER BY user_id, timestamp DESC";
+
+    private static final String PARTITION_PREFIX = "location_tracking_y";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy'm'MM");
+
+    // Gaps-and-islands: a running sum of "gap exceeded" flags numbers the trips of each user.
+    // Step distances use the haversine formula in km; the first step of a trip contributes nothing.
+    private static final String ROLLUP_TRIPS_SQL =
+            "INSERT INTO location_trip_summaries (user_id, device_id, start_time, end_time, " +
+            "start_latitude, start_longitude, end_latitude, end_longitude, " +
+            "min_latitude, max_latitude, min_longitude, max_longitude, point_count, distance_km, max_speed, created_at) " +
+            "SELECT user_id, MAX(device_id), MIN(timestamp), MAX(timestamp), " +
+            "(ARRAY_AGG(latitude ORDER BY timestamp))[1], (ARRAY_AGG(longitude ORDER BY timestamp))[1], " +
+            "(ARRAY_AGG(latitude ORDER BY timestamp DESC))[1], (ARRAY_AGG(longitude ORDER BY timestamp DESC))[1], " +
+            "MIN(latitude), MAX(latitude), MIN(longitude), MAX(longitude), COUNT(*), " +
+            "COALESCE(SUM(step_km), 0), MAX(speed), now() " +
+            "FROM (" +
+            "  SELECT s.*, SUM(new_trip) OVER (PARTITION BY user_id ORDER BY timestamp) AS trip_no FROM (" +
+            "    SELECT user_id, device_id, latitude, longitude, speed, timestamp, " +
+            "      CASE WHEN prev_ts IS NULL OR timestamp - prev_ts > make_interval(mins => ?) THEN 1 ELSE 0 END AS new_trip, " +
+            "      CASE WHEN prev_ts IS NULL OR timestamp - prev_ts > make_interval(mins => ?) THEN 0 " +
+            "        ELSE 12742 * ASIN(SQRT(LEAST(1, " +
+            "          POWER(SIN(RADIANS(latitude - prev_lat) / 2), 2) + " +
+            "          COS(RADIANS(prev_lat)) * COS(RADIANS(latitude)) * POWER(SIN(RADIANS(longitude - prev_lon) / 2), 2)))) " +
+            "      END AS step_km " +
+            "    FROM (" +
+            "      SELECT user_id, device_id, latitude, longitude, speed, timestamp, " +
+            "        LAG(timestamp) OVER w AS prev_ts, LAG(latitude) OVER w AS prev_lat, LAG(longitude) OVER w AS prev_lon " +
+            "      FROM location_tracking WHERE timestamp >= ? AND timestamp < ? " +
+            "      WINDOW w AS (PARTITION BY user_id ORDER BY timestamp)" +
+            "    ) steps" +
+            "  ) s" +
+            ") trips " +
+            "GROUP BY user_id, trip_no " +
+            "ON CONFLICT (user_id, start_time) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int batchInsert(List<LocationPointDTO> points) {
+        if (points.isEmpty()) {
+            return 0;
+        }
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, points, BATCH_SIZE, (ps, point) -> {
+            ps.setLong(1, point.getUserId());
+            ps.setDouble(2, point.getLatitude());
+            ps.setDouble(3, point.getLongitude());
+            setNullableDouble(ps, 4, point.getAccuracy());
+            setNullableDouble(ps, 5, point.getAltitude());
+            setNullableDouble(ps, 6, point.getSpeed());
+            setNullableDouble(ps, 7, point.getHeading());
+            ps.setTimestamp(8, Timestamp.valueOf(point.getTimestamp()));
+            ps.setString(9, point.getDeviceId());
+            ps.setTimestamp(10, createdAt);
+        });
+        return points.size();
+    }
+
+    @Override
+    public List<LocationPointDTO> findLatestPositions(LocalDateTime since) {
+        return jdbcTemplate.query(LATEST_POSITIONS_SQL, (rs, rowNum) -> LocationPointDTO.builder()
+                .userId(rs.getLong("user_id"))
+                .latitude(rs.getDouble("latitude"))
+                .longitude(rs.getDouble("longitude"))
+                .accuracy(rs.getObject("accuracy", Double.class))
+                .speed(rs.getObject("speed", Double.class))
+                .heading(rs.getObject("heading", Double.class))
+                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                .deviceId(rs.getString("device_id"))
+                .build(), Timestamp.valueOf(since));
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = 'location_tracking' AND pg_table_is_visible(c.oid))", Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    @Override
+    public void createMonthlyPartition(YearMonth month) {
+        // Identifiers and bounds are derived from a YearMonth, never from user input
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                " PARTITION OF location_tracking FOR VALUES FROM ('" + month.atDay(1) +
+                "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    @Override
+    public List<YearMonth> findMonthlyPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'location_tracking' AND c.relname LIKE 'location_tracking_y%'", String.class);
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            try {
+                months.add(YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+            } catch (DateTimeParseException e) {
+                // Not one of ours; leave it alone
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    @Override
+    public void dropMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    @Override
+    public int rollupTrips(LocalDateTime from, LocalDateTime to, int tripGapMinutes) {
+        return jdbcTemplate.update(ROLLUP_TRIPS_SQL,
+                tripGapMinutes, tripGapMinutes, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    @Override
+    public Map<Long, List<LocalDate>> findUserDays(LocalDateTime from, LocalDateTime to) {
+        Map<Long, List<LocalDate>> userDays = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT DISTINCT user_id, CAST(timestamp AS date) AS day FROM location_tracking " +
+                "WHERE timestamp >= ? AND timestamp < ? ORDER BY user_id, day",
+                rs -> {
+                    userDays.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>())
+                            .add(rs.getDate("day").toLocalDate());
+                },
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return userDays;
+    }
+
+    @Override
+    public int deleteOlderThan(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM location_tracking WHERE id IN " +
+                "(SELECT id FROM location_tracking WHERE timestamp < ? LIMIT ?)",
+                Timestamp.valueOf(cutoff), limit);
+    }
+
+    @Override
+    public List<CoordinateDTO> findUngeocodedCoordinates(LocalDateTime from, LocalDateTime to,
+                                                         CoordinateDTO after, int limit) {
+        return jdbcTemplate.query(
+                "SELECT DISTINCT ROUND(latitude::numeric, 5) AS lat, ROUND(longitude::numeric, 5) AS lon " +
+                "FROM location_tracking WHERE address IS NULL AND timestamp >= ? AND timestamp < ? " +
+                "AND (ROUND(latitude::numeric, 5), ROUND(longitude::numeric, 5)) > (?::numeric, ?::numeric) " +
+                "ORDER BY lat, lon LIMIT ?",
+                (rs, rowNum) -> new CoordinateDTO(rs.getDouble("lat"), rs.getDouble("lon")),
+                Timestamp.valueOf(from), Timestamp.valueOf(to), after.getLatitude(), after.getLongitude(), limit);
+    }
+
+    @Override
+    public int updateAddresses(LocalDateTime from, LocalDateTime to, Map<CoordinateDTO, String> addresses) {
+        if (addresses.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE location_tracking SET address = ? WHERE address IS NULL AND timestamp >= ? AND timestamp < ? " +
+                "AND ROUND(latitude::numeric, 5) = ?::numeric AND ROUND(longitude::numeric, 5) = ?::numeric",
+                new ArrayList<>(addresses.entrySet()), BATCH_SIZE, (ps, entry) -> {
+                    ps.setString(1, entry.getValue());
+                    ps.setTimestamp(2, Timestamp.valueOf(from));
+                    ps.setTimestamp(3, Timestamp.valueOf(to));
+                    ps.setDouble(4, entry.getKey().getLatitude());
+                    ps.setDouble(5, entry.getKey().getLongitude());
+                });
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+}
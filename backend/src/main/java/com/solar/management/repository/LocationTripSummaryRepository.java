@@ -0,0 +1,20 @@
+package com.solar.management.repository;
+
+import com.solar.management.entity.LocationTripSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LocationTripSummaryRepository extends JpaRepository<LocationTripSummary, Long> {
+
+    @Query("SELECT t FROM LocationTripSummary t WHERE t.userId = :userId " +
+           "AND t.startTime < :end AND t.endTime >= :start ORDER BY t.startTime ASC")
+    List<LocationTripSummary> findByUserIdOverlapping(@Param("userId") Long userId,
+                                                      @Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end);
+}
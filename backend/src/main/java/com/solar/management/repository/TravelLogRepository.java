@@ -8,8 +8,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TravelLogRepository extends JpaRepository<TravelLog, Long> {
@@ -22,7 +24,18 @@ public interface TravelLogRepository extends JpaRepository<TravelLog, Long> {
                                            @Param("end") LocalDateTime end);
 
     @Query("SELECT SUM(t.distance) FROM TravelLog t WHERE t.user = :user AND t.departureTime BETWEEN :start AND :end")
-    Double calculateTotalDistanceForUser(@Param("user") User user,
-                                         @Param("start") LocalDateTime start,
-                                         @Param("end") LocalDateTime end);
+    BigDecimal calculateTotalDistanceForUser(@Param("user") User user,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+
+    @Query("SELECT SUM(t.fuelCost) FROM TravelLog t WHERE t.user = :user AND t.departureTime BETWEEN :start AND :end")
+    BigDecimal calculateTotalFuelCostForUser(@Param("user") User user,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+
+    @Query("SELECT t FROM TravelLog t WHERE t.user.id = :userId AND t.job.id = :jobId " +
+           "AND t.arrivalTime IS NULL AND t.departureTime >= :since ORDER BY t.departureTime DESC LIMIT 1")
+    Optional<TravelLog> findOpenTravelLog(@Param("userId") Long userId,
+                                          @Param("jobId") Long jobId,
+                                          @Param("since") LocalDateTime since);
 }
@@ -4,6 +4,8 @@ import com.solar.management.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,6 +13,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     Optional<User> findByKeycloakId(String keycloakId);
+    List<User> findByKeycloakIdIn(Collection<String> keycloakIds);
+    List<User> findByRoleAndActiveTrue(User.UserRole role);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByKeycloakId(String keycloakId);
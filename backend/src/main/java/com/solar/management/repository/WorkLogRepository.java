@@ -1,20 +1,28 @@
 package com.solar.management.repository;
 
+import com.solar.management.dto.TechnicianTotalsRow;
+import com.solar.management.dto.WorkLogExportRow;
 import com.solar.management.entity.User;
 import com.solar.management.entity.WorkLog;
 import com.solar.management.entity.Job;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface WorkLogRepository extends JpaRepository<WorkLog, Long> {
     
     List<WorkLog> findByUser(User user);
+
+    List<WorkLog> findByUserId(Long userId);
     
     List<WorkLog> findByJob(Job job);
     
@@ -25,6 +33,11 @@ public interface WorkLogRepository extends JpaRepository<WorkLog, Long> {
                                          @Param("startDate") LocalDate startDate, 
                                          @Param("endDate") LocalDate endDate);
     
+    @Query("SELECT w FROM WorkLog w WHERE w.user.id = :userId AND w.job.id = :jobId AND w.workDate = :workDate")
+    List<WorkLog> findByUserJobAndDate(@Param("userId") Long userId,
+                                       @Param("jobId") Long jobId,
+                                       @Param("workDate") LocalDate workDate);
+
     @Query("SELECT w FROM WorkLog w WHERE w.user = :user AND w.invoiced = false ORDER BY w.workDate ASC")
     List<WorkLog> findUninvoicedWorkByUser(@Param("user") User user);
     
@@ -32,4 +45,24 @@ public interface WorkLogRepository extends JpaRepository<WorkLog, Long> {
     List<WorkLog> findUninvoicedWorkByUserAndDateRange(@Param("user") User user,
                                                         @Param("startDate") LocalDate startDate,
                                                         @Param("endDate") LocalDate endDate);
+
+    /**
+     * Stream work logs in a date range as flat export rows
+     * Must be consumed inside a transaction; rows are fetched from a server-side cursor 500 at a time
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.solar.management.dto.WorkLogExportRow(" +
+           "w.id, w.workDate, u.id, CONCAT(u.firstName, ' ', u.lastName), j.jobNumber, w.jobAddress, " +
+           "w.workType, w.startTime, w.endTime, w.hoursWorked, w.hourlyRate, w.totalAmount, w.invoiced, i.invoiceNumber) " +
+           "FROM WorkLog w JOIN w.user u JOIN w.job j LEFT JOIN w.invoice i " +
+           "WHERE w.workDate BETWEEN :startDate AND :endDate ORDER BY w.workDate ASC, u.id ASC")
+    Stream<WorkLogExportRow> streamExportRows(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.solar.management.dto.TechnicianTotalsRow(" +
+           "u.id, CONCAT(u.firstName, ' ', u.lastName), COUNT(w), SUM(w.hoursWorked), SUM(w.totalAmount)) " +
+           "FROM WorkLog w JOIN w.user u WHERE w.workDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY u.id, u.firstName, u.lastName ORDER BY u.lastName ASC, u.firstName ASC")
+    List<TechnicianTotalsRow> findTechnicianTotals(@Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
 }
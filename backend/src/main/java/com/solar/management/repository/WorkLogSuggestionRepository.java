@@ -0,0 +1,18 @@
+package com.solar.management.repository;
+
+import com.solar.management.entity.WorkLogSuggestion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WorkLogSuggestionRepository extends JpaRepository<WorkLogSuggestion, Long> {
+
+    List<WorkLogSuggestion> findByStatusOrderByWorkDateAsc(WorkLogSuggestion.SuggestionStatus status);
+
+    List<WorkLogSuggestion> findByUserIdAndStatusOrderByWorkDateAsc(Long userId, WorkLogSuggestion.SuggestionStatus status);
+
+    Optional<WorkLogSuggestion> findFirstByWorkLogIdOrderByCreatedAtDesc(Long workLogId);
+}
@@ -5,6 +5,7 @@ import com.solar.management.entity.Job;
 import com.solar.management.entity.LocationTracking;
 import com.solar.management.entity.User;
 import com.solar.management.entity.WorkLog;
+import com.solar.management.service.JobAccessIndex;
 import com.solar.management.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
@@ -12,6 +13,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * Centralized utility for authentication and authorization operations
@@ -21,18 +24,60 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class AuthenticationHelper {
 
+    private static final String CURRENT_USER_ATTRIBUTE = AuthenticationHelper.class.getName() + ".currentUser";
+    private static final String CURRENT_PRINCIPAL_ATTRIBUTE = AuthenticationHelper.class.getName() + ".currentPrincipal";
+
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final JobAccessIndex jobAccessIndex;
+
+    /**
+     * Get the id, role and names of the current user from JWT
+     * Resolved once per request, and from PrincipalCache when the token was seen before,
+     * so role checks don't query the database. Prefer this over getCurrentUser.
+     * @return Principal snapshot
+     * @throws AccessDeniedException if user not found
+     */
+    public CurrentPrincipal getCurrentPrincipal() {
+        CurrentPrincipal principal = requestAttribute(CURRENT_PRINCIPAL_ATTRIBUTE, CurrentPrincipal.class);
+        if (principal != null) {
+            return principal;
+        }
+        principal = principalCache.get(getCurrentJwt());
+        if (principal == null) {
+            return CurrentPrincipal.of(getCurrentUser());
+        }
+        setRequestAttribute(CURRENT_PRINCIPAL_ATTRIBUTE, principal);
+        return principal;
+    }
 
     /**
      * Get current authenticated User entity from JWT
+     * Loaded from the database once per request; use only where an entity is needed,
+     * e.g. as a query parameter
      * @return User entity from database
      * @throws AccessDeniedException if user not found
      */
     public User getCurrentUser() {
+        User user = requestAttribute(CURRENT_USER_ATTRIBUTE, User.class);
+        if (user != null) {
+            return user;
+        }
+
         Jwt jwt = getCurrentJwt();
-        String keycloakId = jwt.getSubject();
-        return userService.getUserByKeycloakId(keycloakId)
+        CurrentPrincipal cached = principalCache.get(jwt);
+        user = (cached != null
+                ? userService.getUserById(cached.id())
+                : userService.getUserByKeycloakId(jwt.getSubject()))
                 .orElseThrow(() -> new AccessDeniedException("User not found in database"));
+        // Also refreshes a cached snapshot whose role or username has since changed
+        CurrentPrincipal principal = CurrentPrincipal.of(user);
+        if (!principal.equals(cached)) {
+            principalCache.put(jwt, principal);
+        }
+        setRequestAttribute(CURRENT_USER_ATTRIBUTE, user);
+        setRequestAttribute(CURRENT_PRINCIPAL_ATTRIBUTE, principal);
+        return user;
     }
 
     /**
@@ -53,9 +98,7 @@ public class AuthenticationHelper {
      * @return true if user has ADMIN or MANAGER role
      */
     public boolean isAdminOrManager() {
-        User user = getCurrentUser();
-        return user.getRole() == User.UserRole.ADMIN ||
-               user.getRole() == User.UserRole.MANAGER;
+        return getCurrentPrincipal().isAdminOrManager();
     }
 
     /**
@@ -63,7 +106,7 @@ public class AuthenticationHelper {
      * @return true if user has TECHNICIAN role
      */
     public boolean isTechnician() {
-        return getCurrentUser().getRole() == User.UserRole.TECHNICIAN;
+        return getCurrentPrincipal().isTechnician();
     }
 
     /**
@@ -73,8 +116,8 @@ public class AuthenticationHelper {
      * @throws AccessDeniedException if technician tries to access another user's data
      */
     public void validateUserAccess(Long userId) {
-        User currentUser = getCurrentUser();
-        if (isTechnician() && !currentUser.getId().equals(userId)) {
+        CurrentPrincipal principal = getCurrentPrincipal();
+        if (principal.isTechnician() && !principal.id().equals(userId)) {
             throw new AccessDeniedException("Technicians can only access their own data");
         }
     }
@@ -87,8 +130,8 @@ public class AuthenticationHelper {
      * @throws AccessDeniedException if technician is not assigned to the job
      */
     public void validateJobAccess(Job job) {
-        User currentUser = getCurrentUser();
-        if (isTechnician() && !job.getAssignedTechnicians().contains(currentUser)) {
+        CurrentPrincipal principal = getCurrentPrincipal();
+        if (principal.isTechnician() && !jobAccessIndex.isAssigned(principal.id(), job.getId())) {
             throw new AccessDeniedException("You do not have access to this job");
         }
     }
@@ -101,8 +144,8 @@ public class AuthenticationHelper {
      * @throws AccessDeniedException if technician doesn't own the work log
      */
     public void validateWorkLogAccess(WorkLog workLog) {
-        User currentUser = getCurrentUser();
-        if (isTechnician() && !workLog.getUser().getId().equals(currentUser.getId())) {
+        CurrentPrincipal principal = getCurrentPrincipal();
+        if (principal.isTechnician() && !workLog.getUser().getId().equals(principal.id())) {
             throw new AccessDeniedException("You do not have access to this work log");
         }
     }
@@ -115,8 +158,8 @@ public class AuthenticationHelper {
      * @throws AccessDeniedException if technician doesn't own the invoice
      */
     public void validateInvoiceAccess(Invoice invoice) {
-        User currentUser = getCurrentUser();
-        if (isTechnician() && !invoice.getTechnician().getId().equals(currentUser.getId())) {
+        CurrentPrincipal principal = getCurrentPrincipal();
+        if (principal.isTechnician() && !invoice.getTechnician().getId().equals(principal.id())) {
             throw new AccessDeniedException("You do not have access to this invoice");
         }
     }
@@ -129,9 +172,25 @@ public class AuthenticationHelper {
      * @throws AccessDeniedException if technician doesn't own the location data
      */
     public void validateLocationTrackingAccess(LocationTracking location) {
-        User currentUser = getCurrentUser();
-        if (isTechnician() && !location.getUser().getId().equals(currentUser.getId())) {
+        CurrentPrincipal principal = getCurrentPrincipal();
+        if (principal.isTechnician() && !location.getUser().getId().equals(principal.id())) {
             throw new AccessDeniedException("You do not have access to this location data");
         }
     }
+
+    private static <T> T requestAttribute(String name, Class<T> type) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return null;
+        }
+        Object value = request.getAttribute(name, RequestAttributes.SCOPE_REQUEST);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    private static void setRequestAttribute(String name, Object value) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(name, value, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
 }
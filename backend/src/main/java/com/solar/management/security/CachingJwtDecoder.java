@@ -0,0 +1,102 @@
+package com.solar.management.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JwtDecoder that keeps verified tokens until they expire
+ * Tokens are keyed by the SHA-256 of the whole serialized token, signature included, so only
+ * the exact token that was verified can hit. A client sending the same bearer token on every
+ * call pays for signature verification and claim validation once.
+ * Also keeps the verification latency counters reported by /api/users/auth/stats.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final int maxEntries;
+    private final ConcurrentMap<String, Jwt> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final LongAccumulator maxVerifyNanos = new LongAccumulator(Math::max, 0);
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt cached = entries.get(key);
+        if (cached != null) {
+            if (cached.getExpiresAt().isAfter(Instant.now())) {
+                hits.increment();
+                return cached;
+            }
+            entries.remove(key, cached);
+        }
+
+        long started = System.nanoTime();
+        Jwt jwt;
+        try {
+            jwt = delegate.decode(token);
+        } catch (JwtException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            verifications.increment();
+            verifyNanos.add(elapsed);
+            maxVerifyNanos.accumulate(elapsed);
+        }
+
+        if (jwt.getExpiresAt() != null && entries.size() < maxEntries) {
+            entries.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token-cache.purge-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(jwt -> !jwt.getExpiresAt().isAfter(now));
+    }
+
+    public Map<String, Object> getStats() {
+        long verified = verifications.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedTokens", entries.size());
+        stats.put("cacheHits", hits.sum());
+        stats.put("verifications", verified);
+        stats.put("verificationFailures", failures.sum());
+        stats.put("verifyAvgMillis", verified == 0 ? 0d : verifyNanos.sum() / 1_000_000d / verified);
+        stats.put("verifyMaxMillis", maxVerifyNanos.get() / 1_000_000d);
+        return stats;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
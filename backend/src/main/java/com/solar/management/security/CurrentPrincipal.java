@@ -0,0 +1,22 @@
+package com.solar.management.security;
+
+import com.solar.management.entity.User;
+
+/**
+ * Immutable snapshot of the authenticated user, safe to keep across requests
+ * Holds only what access checks need; use AuthenticationHelper.getCurrentUser for the entity.
+ */
+public record CurrentPrincipal(Long id, String keycloakId, String username, User.UserRole role) {
+
+    public static CurrentPrincipal of(User user) {
+        return new CurrentPrincipal(user.getId(), user.getKeycloakId(), user.getUsername(), user.getRole());
+    }
+
+    public boolean isAdminOrManager() {
+        return role == User.UserRole.ADMIN || role == User.UserRole.MANAGER;
+    }
+
+    public boolean isTechnician() {
+        return role == User.UserRole.TECHNICIAN;
+    }
+}
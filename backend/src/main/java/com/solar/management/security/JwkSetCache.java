@@ -0,0 +1,130 @@
+package com.solar.management.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.RemoteKeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keycloak JWK set, fetched at startup and refreshed in the background
+ * Token verification never waits for the key set except when a token names a key it doesn't
+ * have (after key rotation); that triggers one refetch, at most every min-refresh-interval-ms
+ * counted from the last attempt, successful or not. If Keycloak is unreachable the last fetched
+ * keys keep being used; with none fetched yet, verification fails fast until the next attempt is due.
+ */
+@Component
+@Slf4j
+public class JwkSetCache implements JWKSource<SecurityContext> {
+
+    private final URL jwkSetUrl;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final long minRefreshIntervalNanos;
+
+    private volatile JWKSet jwkSet;
+    private volatile long lastFetchNanos;
+    private volatile long lastAttemptNanos;
+
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+
+    public JwkSetCache(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${app.security.jwks.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${app.security.jwks.read-timeout-ms:3000}") int readTimeoutMs,
+            @Value("${app.security.jwks.min-refresh-interval-ms:30000}") long minRefreshIntervalMs
+    ) throws MalformedURLException {
+        this.jwkSetUrl = new URL(jwkSetUri);
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.minRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minRefreshIntervalMs);
+        this.lastAttemptNanos = System.nanoTime() - minRefreshIntervalNanos;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refreshQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.jwks.refresh-ms:300000}", initialDelayString = "${app.security.jwks.refresh-ms:300000}")
+    public void refreshQuietly() {
+        try {
+            refresh();
+        } catch (IOException | ParseException e) {
+            log.warn("Failed to fetch JWK set from {}: {}", jwkSetUrl, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current != null) {
+            List<JWK> matches = selector.select(current);
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+        }
+        // Unknown key, e.g. right after rotation
+        return selector.select(refreshIfIdle());
+    }
+
+    public Map<String, Object> getStats() {
+        JWKSet current = jwkSet;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keys", current != null ? current.getKeys().size() : 0);
+        stats.put("jwksFetches", fetches.sum());
+        stats.put("jwksFetchFailures", fetchFailures.sum());
+        stats.put("jwksAgeSeconds", current != null ? TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - lastFetchNanos) : null);
+        return stats;
+    }
+
+    private synchronized JWKSet refreshIfIdle() throws KeySourceException {
+        if (System.nanoTime() - lastAttemptNanos < minRefreshIntervalNanos) {
+            if (jwkSet != null) {
+                return jwkSet;
+            }
+            throw new RemoteKeySourceException("JWK set unavailable; last fetch failed", null);
+        }
+        try {
+            return refresh();
+        } catch (IOException | ParseException e) {
+            if (jwkSet != null) {
+                return jwkSet;
+            }
+            throw new RemoteKeySourceException("Couldn't retrieve JWK set: " + e.getMessage(), e);
+        }
+    }
+
+    private synchronized JWKSet refresh() throws IOException, ParseException {
+        lastAttemptNanos = System.nanoTime();
+        try {
+            JWKSet fetched = JWKSet.load(jwkSetUrl, connectTimeoutMs, readTimeoutMs, 0);
+            jwkSet = fetched;
+            lastFetchNanos = System.nanoTime();
+            fetches.increment();
+            return fetched;
+        } catch (IOException | ParseException e) {
+            fetchFailures.increment();
+            throw e;
+        }
+    }
+}
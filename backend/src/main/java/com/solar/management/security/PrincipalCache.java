@@ -0,0 +1,87 @@
+package com.solar.management.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Principal snapshot resolved for each access token
+ * Only the immutable CurrentPrincipal is kept, never the User entity, so cached entries carry
+ * no lazy associations or persistence state.
+ * Entries are keyed by the token's jti (subject and issue time when it has none) and live until
+ * the token expires, capped at max-ttl-seconds so changes made directly in the database are
+ * picked up. Users changed through UserService are evicted straight away.
+ */
+@Component
+public class PrincipalCache {
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long maxTtlSeconds;
+
+    public PrincipalCache(
+            @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.security.principal-cache.max-ttl-seconds:300}") long maxTtlSeconds
+    ) {
+        this.maxEntries = maxEntries;
+        this.maxTtlSeconds = maxTtlSeconds;
+    }
+
+    /**
+     * Principal resolved earlier for this token; null if not cached or expired
+     */
+    public CurrentPrincipal get(Jwt jwt) {
+        String key = key(jwt);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt().isBefore(Instant.now())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    public void put(Jwt jwt, CurrentPrincipal principal) {
+        Instant expiresAt = Instant.now().plusSeconds(maxTtlSeconds);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        if (entries.size() >= maxEntries) {
+            purgeExpired();
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key(jwt), new Entry(principal, expiresAt));
+    }
+
+    /**
+     * Drop every cached token of a user, after the user row changed
+     */
+    public void evictUser(Long userId) {
+        entries.values().removeIf(entry -> entry.principal().id().equals(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.principal-cache.purge-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+    }
+
+    private static String key(Jwt jwt) {
+        if (jwt.getId() != null) {
+            return jwt.getId();
+        }
+        return jwt.getSubject() + "@" + jwt.getIssuedAt();
+    }
+
+    private record Entry(CurrentPrincipal principal, Instant expiresAt) {
+    }
+}
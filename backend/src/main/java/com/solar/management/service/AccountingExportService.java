@@ -0,0 +1,247 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.InvoiceExportRow;
+import com.solar.management.dto.TechnicianTotalsRow;
+import com.solar.management.dto.WorkLogExportRow;
+import com.solar.management.repository.InvoiceRepository;
+import com.solar.management.repository.WorkLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams work logs, invoices and per-technician totals for a date range
+ * to XLSX (POI SXSSF) or CSV for the bookkeeper.
+ * Rows are read from server-side cursors as flat projections, so heap use is
+ * bounded by the cursor fetch size and the SXSSF row window, not the range size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountingExportService {
+
+    // Rows kept in memory per sheet before SXSSF flushes them to its temp file
+    private static final int ROW_WINDOW = 200;
+
+    private static final String[] WORK_LOG_HEADERS = {
+            "Work Log ID", "Date", "Technician", "Job Number", "Address", "Work Type",
+            "Start", "End", "Hours", "Rate", "Amount", "Invoiced", "Invoice Number"
+    };
+
+    private static final String[] INVOICE_HEADERS = {
+            "Invoice ID", "Invoice Number", "Invoice Date", "Technician", "Period Start", "Period End",
+            "Week", "Status", "Subtotal", "GST", "Total", "Paid Date"
+    };
+
+    private static final String[] TOTALS_HEADERS = {
+            "Technician", "Work Logs", "Hours", "Amount"
+    };
+
+    private final WorkLogRepository workLogRepository;
+    private final InvoiceRepository invoiceRepository;
+
+    /**
+     * Write an XLSX workbook with Work Logs, Invoices and Totals sheets
+     */
+    @Transactional(readOnly = true)
+    public void writeXlsx(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font boldFont = workbook.createFont();
+            boldFont.setBold(true);
+            headerStyle.setFont(boldFont);
+
+            SXSSFSheet workLogSheet = workbook.createSheet("Work Logs");
+            int rowIndex = writeHeaderRow(workLogSheet, WORK_LOG_HEADERS, headerStyle);
+            try (Stream<WorkLogExportRow> rows = workLogRepository.streamExportRows(startDate, endDate)) {
+                for (WorkLogExportRow r : (Iterable<WorkLogExportRow>) rows::iterator) {
+                    Row row = workLogSheet.createRow(rowIndex++);
+                    int c = 0;
+                    setCell(row, c++, r.getWorkLogId());
+                    setCell(row, c++, r.getWorkDate());
+                    setCell(row, c++, r.getTechnicianName());
+                    setCell(row, c++, r.getJobNumber());
+                    setCell(row, c++, r.getJobAddress());
+                    setCell(row, c++, r.getWorkType());
+                    setCell(row, c++, r.getStartTime());
+                    setCell(row, c++, r.getEndTime());
+                    setCell(row, c++, r.getHoursWorked());
+                    setCell(row, c++, r.getHourlyRate());
+                    setCell(row, c++, r.getTotalAmount());
+                    setCell(row, c++, Boolean.TRUE.equals(r.getInvoiced()) ? "Yes" : "No");
+                    setCell(row, c, r.getInvoiceNumber());
+                }
+            }
+
+            SXSSFSheet invoiceSheet = workbook.createSheet("Invoices");
+            rowIndex = writeHeaderRow(invoiceSheet, INVOICE_HEADERS, headerStyle);
+            try (Stream<InvoiceExportRow> rows = invoiceRepository.streamExportRows(startDate, endDate)) {
+                for (InvoiceExportRow r : (Iterable<InvoiceExportRow>) rows::iterator) {
+                    Row row = invoiceSheet.createRow(rowIndex++);
+                    int c = 0;
+                    setCell(row, c++, r.getInvoiceId());
+                    setCell(row, c++, r.getInvoiceNumber());
+                    setCell(row, c++, r.getInvoiceDate());
+                    setCell(row, c++, r.getTechnicianName());
+                    setCell(row, c++, r.getPeriodStartDate());
+                    setCell(row, c++, r.getPeriodEndDate());
+                    setCell(row, c++, r.getWeekNumber());
+                    setCell(row, c++, r.getStatus());
+                    setCell(row, c++, r.getSubtotal());
+                    setCell(row, c++, r.getGstAmount());
+                    setCell(row, c++, r.getTotalAmount());
+                    setCell(row, c, r.getPaidDate());
+                }
+            }
+
+            SXSSFSheet totalsSheet = workbook.createSheet("Totals");
+            rowIndex = writeHeaderRow(totalsSheet, TOTALS_HEADERS, headerStyle);
+            List<TechnicianTotalsRow> totals = workLogRepository.findTechnicianTotals(startDate, endDate);
+            for (TechnicianTotalsRow t : totals) {
+                Row row = totalsSheet.createRow(rowIndex++);
+                setCell(row, 0, t.getTechnicianName());
+                setCell(row, 1, t.getWorkLogCount());
+                setCell(row, 2, t.getTotalHours());
+                setCell(row, 3, t.getTotalAmount());
+            }
+            Row grandTotal = totalsSheet.createRow(rowIndex);
+            Cell label = grandTotal.createCell(0);
+            label.setCellValue("Total");
+            label.setCellStyle(headerStyle);
+            setCell(grandTotal, 1, totals.stream().mapToLong(TechnicianTotalsRow::getWorkLogCount).sum());
+            setCell(grandTotal, 2, sum(totals, TechnicianTotalsRow::getTotalHours));
+            setCell(grandTotal, 3, sum(totals, TechnicianTotalsRow::getTotalAmount));
+
+            workbook.write(out);
+            log.info("Accounting XLSX export written for {} to {}", startDate, endDate);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Write a CSV export with work log, invoice and totals sections separated by blank lines
+     * Output is flushed as rows are read, so the download starts immediately
+     */
+    @Transactional(readOnly = true)
+    public void writeCsv(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            writer.write("Work Logs\n");
+            writeCsvLine(writer, (Object[]) WORK_LOG_HEADERS);
+            try (Stream<WorkLogExportRow> rows = workLogRepository.streamExportRows(startDate, endDate)) {
+                rows.forEach(r -> writeCsvLine(writer,
+                        r.getWorkLogId(), r.getWorkDate(), r.getTechnicianName(), r.getJobNumber(),
+                        r.getJobAddress(), r.getWorkType(), r.getStartTime(), r.getEndTime(),
+                        r.getHoursWorked(), r.getHourlyRate(), r.getTotalAmount(),
+                        Boolean.TRUE.equals(r.getInvoiced()) ? "Yes" : "No", r.getInvoiceNumber()));
+            }
+
+            writer.write("\nInvoices\n");
+            writeCsvLine(writer, (Object[]) INVOICE_HEADERS);
+            try (Stream<InvoiceExportRow> rows = invoiceRepository.streamExportRows(startDate, endDate)) {
+                rows.forEach(r -> writeCsvLine(writer,
+                        r.getInvoiceId(), r.getInvoiceNumber(), r.getInvoiceDate(), r.getTechnicianName(),
+                        r.getPeriodStartDate(), r.getPeriodEndDate(), r.getWeekNumber(), r.getStatus(),
+                        r.getSubtotal(), r.getGstAmount(), r.getTotalAmount(), r.getPaidDate()));
+            }
+
+            writer.write("\nTotals\n");
+            writeCsvLine(writer, (Object[]) TOTALS_HEADERS);
+            List<TechnicianTotalsRow> totals = workLogRepository.findTechnicianTotals(startDate, endDate);
+            for (TechnicianTotalsRow t : totals) {
+                writeCsvLine(writer, t.getTechnicianName(), t.getWorkLogCount(), t.getTotalHours(), t.getTotalAmount());
+            }
+            writeCsvLine(writer, "Total",
+                    totals.stream().mapToLong(TechnicianTotalsRow::getWorkLogCount).sum(),
+                    sum(totals, TechnicianTotalsRow::getTotalHours),
+                    sum(totals, TechnicianTotalsRow::getTotalAmount));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            writer.flush();
+        }
+        log.info("Accounting CSV export written for {} to {}", startDate, endDate);
+    }
+
+    private int writeHeaderRow(SXSSFSheet sheet, String[] headers, CellStyle style) {
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(style);
+        }
+        return 1;
+    }
+
+    private void setCell(Row row, int column, Object value) {
+        if (value == null) {
+            return;
+        }
+        Cell cell = row.createCell(column);
+        if (value instanceof BigDecimal decimal) {
+            cell.setCellValue(decimal.doubleValue());
+        } else if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+    private void writeCsvLine(Writer writer, Object... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escapeCsv(values[i]));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private BigDecimal sum(List<TechnicianTotalsRow> totals,
+                           Function<TechnicianTotalsRow, BigDecimal> field) {
+        return totals.stream()
+                .map(field)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,93 @@
+package com.solar.management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Local address gazetteer (e.g. a state's G-NAF extract) for autocomplete and forward geocoding
+ * The CSV source is compiled into a GazetteerTable file when the table is missing or older than
+ * the source, then memory-mapped. Loading runs in the background at startup; until it finishes,
+ * lookups return nothing and callers fall back to the Maps API.
+ */
+@Component
+@Slf4j
+public class AddressGazetteer {
+
+    @Value("${app.gazetteer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.gazetteer.source:}")
+    private String source;
+
+    @Value("${app.gazetteer.table:./data/gazetteer.sgz}")
+    private String tableFile;
+
+    private volatile GazetteerTable table;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "gazetteer-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Rebuild the table if the source is newer, then map it
+     */
+    public synchronized void load() {
+        Path target = Paths.get(tableFile);
+        try {
+            if (!source.isBlank()) {
+                Path sourcePath = Paths.get(source);
+                if (Files.exists(sourcePath) && (!Files.exists(target)
+                        || Files.getLastModifiedTime(sourcePath).compareTo(Files.getLastModifiedTime(target)) > 0)) {
+                    long started = System.currentTimeMillis();
+                    int count = GazetteerTable.build(sourcePath, target);
+                    log.info("Built gazetteer table with {} addresses in {} ms", count, System.currentTimeMillis() - started);
+                }
+            }
+            if (!Files.exists(target)) {
+                log.warn("Gazetteer enabled but no table at {} and no source to build it from", target);
+                return;
+            }
+            table = GazetteerTable.open(target);
+            log.info("Gazetteer loaded with {} addresses", table.size());
+        } catch (Exception e) {
+            log.error("Failed to load gazetteer: {}", e.getMessage(), e);
+        }
+    }
+
+    public boolean isLoaded() {
+        return table != null;
+    }
+
+    /**
+     * Addresses starting with the typed text; empty if the gazetteer isn't loaded
+     */
+    public List<GazetteerTable.Entry> autocomplete(String query, int limit) {
+        GazetteerTable current = table;
+        if (current == null || query == null) {
+            return List.of();
+        }
+        return current.prefixSearch(query, limit);
+    }
+
+    /**
+     * Exact address match; null if not found or the gazetteer isn't loaded
+     */
+    public GazetteerTable.Entry find(String address) {
+        GazetteerTable current = table;
+        return current == null || address == null ? null : current.find(address);
+    }
+}
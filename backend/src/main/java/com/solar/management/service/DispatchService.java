@@ -0,0 +1,132 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.DispatchCandidateDTO;
+import com.solar.management.dto.TechnicianScheduleRow;
+import com.solar.management.entity.Job;
+import com.solar.management.entity.User;
+import com.solar.management.repository.JobRepository;
+import com.solar.management.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks technicians for an urgent job by proximity and availability
+ * Nearest technicians come from TechnicianSpatialIndex in memory; only those candidates'
+ * open jobs for today are read from the database, in a single query. Technicians not on a job right now are
+ * ranked first, each group by straight-line distance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class DispatchService {
+
+    private static final List<Job.JobStatus> CLOSED_STATUSES =
+            List.of(Job.JobStatus.COMPLETED, Job.JobStatus.CANCELLED);
+
+    private final TechnicianSpatialIndex technicianSpatialIndex;
+    private final UserRepository userRepository;
+    private final JobRepository jobRepository;
+
+    @Value("${app.dispatch.candidate-factor:3}")
+    private int candidateFactor;
+
+    @Value("${app.dispatch.max-position-age-minutes:120}")
+    private long maxPositionAgeMinutes;
+
+    @Value("${app.dispatch.average-speed-kmh:50}")
+    private double averageSpeedKmh;
+
+    @Value("${app.dispatch.road-factor:1.3}")
+    private double roadFactor;
+
+    /**
+     * Up to limit technicians nearest to a point, available ones first
+     */
+    public List<DispatchCandidateDTO> findNearestTechnicians(double latitude, double longitude, int limit) {
+        Map<Long, User> technicians = userRepository.findByRoleAndActiveTrue(User.UserRole.TECHNICIAN).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        long minTimestamp = LocalDateTime.now().minusMinutes(maxPositionAgeMinutes).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+        // Over-fetch so busy technicians don't crowd out free ones slightly further away
+        List<TechnicianSpatialIndex.Neighbour> nearest = technicianSpatialIndex.nearest(
+                latitude, longitude, limit * candidateFactor, technicians::containsKey, minTimestamp);
+
+        // Today's open jobs for all candidates in one query
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime today = now.toLocalDate().atStartOfDay();
+        Map<Long, List<TechnicianScheduleRow>> schedules = nearest.isEmpty() ? Map.of()
+                : jobRepository.findSchedules(nearest.stream().map(TechnicianSpatialIndex.Neighbour::userId).toList(),
+                                today, today.plusDays(1), CLOSED_STATUSES).stream()
+                        .collect(Collectors.groupingBy(TechnicianScheduleRow::getTechnicianId));
+
+        List<DispatchCandidateDTO> candidates = new ArrayList<>(nearest.size());
+        for (TechnicianSpatialIndex.Neighbour neighbour : nearest) {
+            candidates.add(toCandidate(neighbour, technicians.get(neighbour.userId()),
+                    schedules.getOrDefault(neighbour.userId(), List.of()), now));
+        }
+        candidates.sort(Comparator.comparing((DispatchCandidateDTO c) -> !c.getAvailable())
+                .thenComparing(DispatchCandidateDTO::getDistanceKm));
+        return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+    }
+
+    /**
+     * Technicians nearest to a job's site, excluding those already assigned to it
+     */
+    public List<DispatchCandidateDTO> findNearestTechniciansForJob(Long jobId, int limit) {
+        Job job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found with id: " + jobId));
+        List<Long> assigned = job.getAssignedTechnicians().stream().map(User::getId).toList();
+        List<DispatchCandidateDTO> candidates = findNearestTechnicians(
+                job.getLocation().getLatitude(), job.getLocation().getLongitude(), limit + assigned.size());
+        candidates.removeIf(candidate -> assigned.contains(candidate.getUserId()));
+        return candidates.size() > limit ? new ArrayList<>(candidates.subList(0, limit)) : candidates;
+    }
+
+    /**
+     * @param jobsToday The technician's open jobs starting today, in start order
+     */
+    private DispatchCandidateDTO toCandidate(TechnicianSpatialIndex.Neighbour neighbour, User technician,
+                                             List<TechnicianScheduleRow> jobsToday, LocalDateTime now) {
+        TechnicianScheduleRow currentJob = jobsToday.stream()
+                .filter(job -> job.getStatus() == Job.JobStatus.IN_PROGRESS
+                        || (!job.getStartTime().isAfter(now) && job.getEndTime() != null && job.getEndTime().isAfter(now)))
+                .findFirst()
+                .orElse(null);
+        TechnicianScheduleRow nextJob = jobsToday.stream()
+                .filter(job -> job.getStartTime().isAfter(now))
+                .findFirst()
+                .orElse(null);
+
+        double distanceKm = neighbour.distanceMeters() / 1000;
+        int etaMinutes = (int) Math.ceil(distanceKm * roadFactor / averageSpeedKmh * 60);
+
+        return DispatchCandidateDTO.builder()
+                .userId(technician.getId())
+                .name(technician.getFirstName() + " " + technician.getLastName())
+                .latitude(neighbour.latitude())
+                .longitude(neighbour.longitude())
+                .positionTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(neighbour.timestampMillis()), ZoneOffset.UTC))
+                .distanceKm(Math.round(distanceKm * 100) / 100d)
+                .etaMinutes(etaMinutes)
+                .available(currentJob == null)
+                .currentJobNumber(currentJob != null ? currentJob.getJobNumber() : null)
+                .nextJobNumber(nextJob != null ? nextJob.getJobNumber() : null)
+                .nextJobStart(nextJob != null ? nextJob.getStartTime() : null)
+                .jobsToday(jobsToday.size())
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.solar.management.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns geofence arrivals and departures into on-site dwell intervals
+ * GeofenceEngine already tracks each technician incrementally as fixes are ingested, so this
+ * only pairs each departure with the preceding arrival at the same job; history is never rescanned.
+ * Visits shorter than min-minutes (drive-bys, quick stops) are ignored.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DwellDetector {
+
+    private final WorkLogSuggestionService workLogSuggestionService;
+
+    @Value("${app.dwell.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dwell.min-minutes:10}")
+    private long minMinutes;
+
+    // Arrival of the visit in progress, per technician
+    private final Map<Long, GeofenceEvent> arrivals = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onGeofenceEvent(GeofenceEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.getType() == GeofenceEvent.Type.ARRIVE) {
+            arrivals.put(event.getUserId(), event);
+            return;
+        }
+        GeofenceEvent arrival = arrivals.remove(event.getUserId());
+        if (arrival == null || !arrival.getJobId().equals(event.getJobId())) {
+            return;
+        }
+        Duration dwell = Duration.between(arrival.getTimestamp(), event.getTimestamp());
+        if (dwell.toMinutes() < minMinutes) {
+            return;
+        }
+        log.debug("User {} dwelled {} minutes at job {}", event.getUserId(), dwell.toMinutes(), event.getJobId());
+        try {
+            workLogSuggestionService.recordDwell(event.getUserId(), event.getJobId(),
+                    arrival.getTimestamp(), event.getTimestamp());
+        } catch (Exception e) {
+            // Don't fail other geofence listeners such as travel log automation
+            log.error("Failed to record dwell for user {} at job {}: {}",
+                    event.getUserId(), event.getJobId(), e.getMessage(), e);
+        }
+    }
+}
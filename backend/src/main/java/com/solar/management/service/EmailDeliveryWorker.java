@@ -0,0 +1,209 @@
+package com.solar.management.service;
+
+import com.solar.management.entity.EmailOutboxMessage;
+import com.solar.management.entity.Invoice;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background delivery of queued outbox emails
+ * Each worker claims a batch and sends it with a single JavaMailSender.send(MimeMessage...) call,
+ * which reuses one SMTP connection for the whole batch. Failures are retried with
+ * exponential backoff by InvoiceEmailService and dead-lettered after max attempts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailDeliveryWorker {
+
+    private final InvoiceEmailService invoiceEmailService;
+    private final InvoiceService invoiceService;
+    private final JavaMailSender mailSender;
+
+    @Value("${app.mail.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.mail.from:}")
+    private String fromAddress;
+
+    @Value("${app.mail.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.batch-size:20}")
+    private int batchSize;
+
+    @Value("${file.upload-dir:./uploads}")
+    private String uploadDir;
+
+    private final AtomicInteger activeBatches = new AtomicInteger();
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("email-delivery-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Claim due messages and hand them to idle workers
+     */
+    @Scheduled(fixedDelayString = "${app.mail.poll-interval-ms:5000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        while (activeBatches.get() < workers) {
+            List<EmailOutboxMessage> batch = invoiceEmailService.claimBatch(batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            activeBatches.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    deliver(batch);
+                } finally {
+                    activeBatches.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Requeue messages left in SENDING by a worker that died mid-batch
+     */
+    @Scheduled(fixedDelayString = "${app.mail.stale-claim-check-ms:300000}")
+    public void releaseStaleClaims() {
+        if (!enabled) {
+            return;
+        }
+        int released = invoiceEmailService.releaseStaleClaims(LocalDateTime.now().minusMinutes(10));
+        if (released > 0) {
+            log.warn("Released {} stale email claims back to the queue", released);
+        }
+    }
+
+    private void deliver(List<EmailOutboxMessage> batch) {
+        Map<MimeMessage, Long> messageIds = new HashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>();
+
+        for (EmailOutboxMessage message : batch) {
+            try {
+                MimeMessage mime = buildMimeMessage(message);
+                messageIds.put(mime, message.getId());
+                mimeMessages.add(mime);
+            } catch (Exception e) {
+                invoiceEmailService.markFailed(message.getId(), "Failed to build message: " + e.getMessage());
+            }
+        }
+
+        if (mimeMessages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(mimeMessages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                // Connection-level failure: nothing in the batch was sent
+                failures = new HashMap<>();
+                for (MimeMessage mime : mimeMessages) {
+                    failures.put(mime, e);
+                }
+            }
+        } catch (Exception e) {
+            failures = new HashMap<>();
+            for (MimeMessage mime : mimeMessages) {
+                failures.put(mime, e);
+            }
+        }
+
+        for (MimeMessage mime : mimeMessages) {
+            Long id = messageIds.get(mime);
+            Exception failure = failures.get(mime);
+            if (failure == null) {
+                invoiceEmailService.markSent(id);
+            } else {
+                invoiceEmailService.markFailed(id, failure.getMessage());
+            }
+        }
+
+        log.info("Email batch delivered: {} sent, {} failed",
+                mimeMessages.size() - failures.size(), failures.size());
+    }
+
+    private MimeMessage buildMimeMessage(EmailOutboxMessage message) throws Exception {
+        String attachmentPath = resolveAttachment(message);
+
+        MimeMessage mime = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mime, attachmentPath != null, "UTF-8");
+        if (fromAddress != null && !fromAddress.isBlank()) {
+            helper.setFrom(fromAddress);
+        }
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody());
+
+        if (attachmentPath != null) {
+            Path file = Paths.get(uploadDir, attachmentPath);
+            if (!Files.exists(file)) {
+                throw new MessagingException("Attachment not found: " + attachmentPath);
+            }
+            helper.addAttachment(file.getFileName().toString(), new FileSystemResource(file));
+        }
+        return mime;
+    }
+
+    /**
+     * Use the stored attachment, or render the invoice PDF on the worker thread if it doesn't exist yet
+     */
+    private String resolveAttachment(EmailOutboxMessage message) throws Exception {
+        if (message.getAttachmentPath() != null) {
+            return message.getAttachmentPath();
+        }
+        if (message.getInvoice() == null) {
+            return null;
+        }
+        Long invoiceId = message.getInvoice().getId();
+        Invoice invoice = invoiceService.getInvoiceById(invoiceId);
+        String path = invoice.getFileUrl() != null
+                ? invoice.getFileUrl()
+                : invoiceService.generateExcelInvoice(invoiceId);
+        invoiceEmailService.setAttachmentPath(message.getId(), path);
+        return path;
+    }
+}
@@ -0,0 +1,181 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.FleetPositionDTO;
+import com.solar.management.dto.LocationPointDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes technician position updates to dispatcher dashboards over Server-Sent Events
+ * Persisted fixes are coalesced to the newest per technician and fanned out once per tick.
+ * Each subscriber is sent on a worker thread; while a send is still in flight, further
+ * updates for that subscriber are merged so a slow consumer only receives the latest position.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FleetStreamService implements LocationFixListener {
+
+    private final LatestPositionCache latestPositionCache;
+
+    @Value("${app.location.stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.location.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${app.location.stream.workers:4}")
+    private int workers;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Fixes persisted since the last tick, newest per user
+    private final Map<Long, FleetPositionDTO> changed = new ConcurrentHashMap<>();
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("fleet-stream-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        executor.shutdown();
+    }
+
+    /**
+     * Open a stream; the first event is a "snapshot" of the whole fleet, followed by "positions" deltas
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Register before taking the snapshot so fixes persisted meanwhile reach this subscriber as
+        // deltas; holding the sending flag keeps tick() from writing to the emitter concurrently
+        subscriber.sending.set(true);
+        subscribers.add(subscriber);
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(latestPositionCache.getAll()));
+        } catch (Exception e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscriber.lastSentAt = System.currentTimeMillis();
+        subscriber.sending.set(false);
+        log.debug("Fleet stream subscriber added, {} active", subscribers.size());
+        return emitter;
+    }
+
+    @Override
+    public void onLocationsPersisted(List<LocationPointDTO> points) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (LocationPointDTO point : points) {
+            changed.merge(point.getUserId(), toFleetPosition(point), FleetStreamService::newer);
+        }
+    }
+
+    /**
+     * Fan out positions changed since the last tick to every subscriber
+     */
+    @Scheduled(fixedDelayString = "${app.location.stream.tick-ms:1000}")
+    public void tick() {
+        Map<Long, FleetPositionDTO> updates = new HashMap<>();
+        changed.forEach((userId, position) -> {
+            if (changed.remove(userId, position)) {
+                updates.put(userId, position);
+            }
+        });
+
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            updates.forEach((userId, position) -> subscriber.pending.merge(userId, position, FleetStreamService::newer));
+            boolean heartbeatDue = now - subscriber.lastSentAt >= heartbeatMs;
+            if ((subscriber.pending.isEmpty() && !heartbeatDue) || !subscriber.sending.compareAndSet(false, true)) {
+                // Busy subscribers keep accumulating; only their newest position per technician is sent
+                continue;
+            }
+            executor.execute(() -> send(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            List<FleetPositionDTO> batch = new ArrayList<>(subscriber.pending.size());
+            for (Long userId : new ArrayList<>(subscriber.pending.keySet())) {
+                FleetPositionDTO position = subscriber.pending.remove(userId);
+                if (position != null) {
+                    batch.add(position);
+                }
+            }
+            if (batch.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                subscriber.emitter.send(SseEmitter.event().name("positions").data(batch));
+            }
+            subscriber.lastSentAt = System.currentTimeMillis();
+        } catch (Exception e) {
+            log.debug("Dropping fleet stream subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private static FleetPositionDTO newer(FleetPositionDTO current, FleetPositionDTO next) {
+        return next.getTimestamp().isBefore(current.getTimestamp()) ? current : next;
+    }
+
+    private static FleetPositionDTO toFleetPosition(LocationPointDTO point) {
+        return FleetPositionDTO.builder()
+                .userId(point.getUserId())
+                .latitude(point.getLatitude())
+                .longitude(point.getLongitude())
+                .accuracy(point.getAccuracy())
+                .speed(point.getSpeed())
+                .heading(point.getHeading())
+                .timestamp(point.getTimestamp())
+                .build();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Map<Long, FleetPositionDTO> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long lastSentAt;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
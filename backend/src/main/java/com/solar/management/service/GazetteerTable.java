@@ -0,0 +1,325 @@
+package com.solar.management.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sorted string table of addresses, read by memory-mapping the file
+ *
+ * Layout: magic, version, record count, index offset, then the records sorted by key,
+ * then an index of record offsets. Each record is its normalised search key, the formatted
+ * address, locality, state and postcode (all length-prefixed UTF-8), then latitude and longitude.
+ * Keys are compared as unsigned bytes, so a prefix query is a binary search for the first key
+ * not below the prefix followed by a forward scan. Lookups only use absolute reads on the
+ * shared read-only buffer, so a table can be queried from many threads.
+ */
+public final class GazetteerTable {
+
+    private static final int MAGIC = 0x53475A31; // "SGZ1"
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 1 + 4 + 8;
+    private static final String[] COLUMNS = {"address", "locality", "state", "postcode", "latitude", "longitude"};
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int indexOffset;
+
+    private GazetteerTable(ByteBuffer buffer, int count, int indexOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Build a table from a CSV file with a header row naming the columns
+     * address, locality, state, postcode, latitude and longitude (any order, extra columns ignored)
+     * @return Number of addresses written
+     */
+    public static int build(Path source, Path target) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Gazetteer source is empty: " + source);
+            }
+            int[] columns = columnPositions(parseCsvLine(header), source);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = parseCsvLine(line);
+                try {
+                    rows.add(Row.of(fields[columns[0]], fields[columns[1]], fields[columns[2]], fields[columns[3]],
+                            Double.parseDouble(fields[columns[4]]), Double.parseDouble(fields[columns[5]])));
+                } catch (RuntimeException e) {
+                    // Skip malformed rows rather than failing the whole build
+                }
+            }
+        }
+        rows.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key));
+
+        long indexOffset = HEADER_BYTES;
+        for (Row row : rows) {
+            indexOffset += row.size();
+        }
+        if (indexOffset + 4L * rows.size() > Integer.MAX_VALUE) {
+            throw new IOException("Gazetteer too large for a single mapped file: " + rows.size() + " addresses");
+        }
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "gazetteer", ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(rows.size());
+            out.writeLong(indexOffset);
+            for (Row row : rows) {
+                row.writeTo(out);
+            }
+            int offset = HEADER_BYTES;
+            for (Row row : rows) {
+                out.writeInt(offset);
+                offset += row.size();
+            }
+        }
+        // Write then rename so a running reader never maps a partial file
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows.size();
+    }
+
+    public static GazetteerTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.get(4) != VERSION) {
+                throw new IOException("Not a gazetteer table: " + file);
+            }
+            return new GazetteerTable(mapped, mapped.getInt(5), (int) mapped.getLong(9));
+        }
+    }
+
+    /**
+     * Search key for an address: upper case letters and digits separated by single spaces
+     */
+    public static String normalize(String text) {
+        StringBuilder key = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && key.length() > 0) {
+                    key.append(' ');
+                }
+                key.append(Character.toUpperCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return key.toString();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Up to limit distinct addresses whose key starts with the normalised prefix, in key order
+     */
+    public List<Entry> prefixSearch(String prefix, int limit) {
+        byte[] probe = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+        List<Entry> matches = new ArrayList<>();
+        if (probe.length == 0) {
+            return matches;
+        }
+        Set<String> seen = new LinkedHashSet<>();
+        for (int i = lowerBound(probe); i < count && matches.size() < limit; i++) {
+            int offset = recordOffset(i);
+            if (!startsWith(offset, probe)) {
+                break;
+            }
+            Entry entry = readEntry(offset);
+            if (seen.add(entry.address())) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The address whose key equals the normalised address, or null
+     */
+    public Entry find(String address) {
+        byte[] probe = normalize(address).getBytes(StandardCharsets.UTF_8);
+        if (probe.length == 0) {
+            return null;
+        }
+        int i = lowerBound(probe);
+        if (i < count && compareKey(recordOffset(i), probe) == 0) {
+            return readEntry(recordOffset(i));
+        }
+        return null;
+    }
+
+    private int lowerBound(byte[] probe) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareKey(recordOffset(mid), probe) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int recordOffset(int i) {
+        return buffer.getInt(indexOffset + 4 * i);
+    }
+
+    private int compareKey(int offset, byte[] probe) {
+        int keyLength = buffer.getShort(offset) & 0xFFFF;
+        int length = Math.min(keyLength, probe.length);
+        for (int i = 0; i < length; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(offset + 2 + i), probe[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(keyLength, probe.length);
+    }
+
+    private boolean startsWith(int offset, byte[] probe) {
+        int keyLength = buffer.getShort(offset) & 0xFFFF;
+        if (keyLength < probe.length) {
+            return false;
+        }
+        for (int i = 0; i < probe.length; i++) {
+            if (buffer.get(offset + 2 + i) != probe[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Entry readEntry(int offset) {
+        int position = offset + 2 + (buffer.getShort(offset) & 0xFFFF);
+        String[] strings = new String[4];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getShort(position) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            buffer.get(position + 2, bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+        return new Entry(strings[0], strings[1], strings[2], strings[3],
+                buffer.getDouble(position), buffer.getDouble(position + 8));
+    }
+
+    private static int[] columnPositions(String[] header, Path source) throws IOException {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            positions.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        int[] columns = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            Integer position = positions.get(COLUMNS[i]);
+            if (position == null) {
+                throw new IOException("Gazetteer source " + source + " has no '" + COLUMNS[i] + "' column");
+            }
+            columns[i] = position;
+        }
+        return columns;
+    }
+
+    /**
+     * Split one CSV line; fields may be double-quoted, with "" for a literal quote
+     */
+    private static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * An address from the gazetteer
+     */
+    public record Entry(String address, String locality, String state, String postcode,
+                        double latitude, double longitude) {
+    }
+
+    private record Row(byte[] key, byte[] address, byte[] locality, byte[] state, byte[] postcode,
+                       double latitude, double longitude) {
+
+        static Row of(String street, String locality, String state, String postcode, double latitude, double longitude) {
+            String address = street.trim() + ", " + locality.trim() + " " + state.trim() + " " + postcode.trim();
+            return new Row(utf8(normalize(address)), utf8(address), utf8(locality.trim()), utf8(state.trim()),
+                    utf8(postcode.trim()), latitude, longitude);
+        }
+
+        int size() {
+            return 2 + key.length + 2 + address.length + 2 + locality.length + 2 + state.length
+                    + 2 + postcode.length + 16;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            for (byte[] bytes : new byte[][] {key, address, locality, state, postcode}) {
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            out.writeDouble(latitude);
+            out.writeDouble(longitude);
+        }
+
+        private static byte[] utf8(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Gazetteer field too long");
+            }
+            return bytes;
+        }
+    }
+}
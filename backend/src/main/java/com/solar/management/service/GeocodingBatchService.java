@@ -0,0 +1,366 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.CoordinateDTO;
+import com.solar.management.entity.GeocodingCache;
+import com.solar.management.entity.Location;
+import com.solar.management.repository.LocationRepository;
+import com.solar.management.repository.LocationTrackingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Batch reverse and forward geocoding, and backfill of addresses and coordinates
+ * Inputs are deduplicated and answered from the geocoding caches, and addresses from the local
+ * gazetteer, first. The remaining lookups go to the Maps API on a small worker pool, each call
+ * taking a token from a rate limiter, and the results are written to geocoding_cache with one
+ * batched insert. Batch requests and backfills have separate pools and rate budgets, so a running
+ * backfill does not slow interactive batches; a batch that does not fit in its bounded queue is
+ * rejected with GeocodingUnavailableException (503) instead of piling up behind earlier ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeocodingBatchService {
+
+    private static final CoordinateDTO FIRST_COORDINATE = new CoordinateDTO(-91d, -181d);
+
+    private final GeocodingService geocodingService;
+    private final LocationTrackingRepository locationTrackingRepository;
+    private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.geocoding.batch.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.geocoding.batch.rate-per-second:10}")
+    private double ratePerSecond;
+
+    @Value("${app.geocoding.batch.burst:10}")
+    private int burst;
+
+    @Value("${app.geocoding.batch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.geocoding.batch.backfill-parallelism:2}")
+    private int backfillParallelism;
+
+    @Value("${app.geocoding.batch.backfill-rate-per-second:3}")
+    private double backfillRatePerSecond;
+
+    @Value("${app.geocoding.batch.backfill-page-size:200}")
+    private int backfillPageSize;
+
+    private Lane batchLane;
+    private Lane backfillLane;
+    private final ExecutorService backfillRunner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "geocoding-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile Map<String, Object> backfillStatus = Map.of("running", false);
+
+    @PostConstruct
+    public void init() {
+        // A full batch queue rejects the request; a backfill runs its overflow on its own thread
+        batchLane = new Lane(executor("geocoding-batch-", parallelism, queueCapacity,
+                new ThreadPoolExecutor.AbortPolicy()), new TokenBucket(ratePerSecond, burst));
+        backfillLane = new Lane(executor("geocoding-backfill-", backfillParallelism, backfillPageSize,
+                new ThreadPoolExecutor.CallerRunsPolicy()), new TokenBucket(backfillRatePerSecond, 1));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillRunner.shutdownNow();
+        batchLane.executor().shutdown();
+        backfillLane.executor().shutdown();
+    }
+
+    /**
+     * Reverse geocode many coordinates; results are in input order
+     * Each result is the reverseGeocode response, or latitude, longitude and an error
+     */
+    public List<Map<String, Object>> reverseGeocodeBatch(List<CoordinateDTO> coordinates) {
+        Map<CoordinateDTO, Map<String, Object>> resolved = resolveReverse(batchLane, coordinates.stream()
+                .map(c -> new CoordinateDTO(GeocodingService.roundCoordinate(c.getLatitude()),
+                        GeocodingService.roundCoordinate(c.getLongitude())))
+                .distinct()
+                .toList());
+
+        List<Map<String, Object>> results = new ArrayList<>(coordinates.size());
+        for (CoordinateDTO c : coordinates) {
+            CoordinateDTO key = new CoordinateDTO(GeocodingService.roundCoordinate(c.getLatitude()),
+                    GeocodingService.roundCoordinate(c.getLongitude()));
+            results.add(new HashMap<>(resolved.get(key)));
+        }
+        return results;
+    }
+
+    /**
+     * Forward geocode many addresses; results are in input order
+     * Each result has the query, and either the reverseGeocode-style response or an error.
+     * Addresses in the local gazetteer are answered without calling the Maps API; results from
+     * the API are also cached by coordinates, warming the reverse geocoding cache.
+     */
+    public List<Map<String, Object>> forwardGeocodeBatch(List<String> addresses) {
+        Map<String, Map<String, Object>> local = new HashMap<>();
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (String address : addresses) {
+            String key = normalize(address);
+            if (local.containsKey(key) || queries.containsKey(key)) {
+                continue;
+            }
+            Map<String, Object> found = geocodingService.findLocal(address.trim());
+            if (found != null) {
+                local.put(key, found);
+            } else {
+                queries.put(key, address.trim());
+            }
+        }
+        Map<String, Outcome> outcomes = callUpstream(batchLane, queries.keySet(),
+                key -> geocodingService.fetchForward(queries.get(key)));
+        geocodingService.storeAll(outcomes.values().stream()
+                .map(Outcome::entry).filter(Objects::nonNull).toList());
+
+        List<Map<String, Object>> results = new ArrayList<>(addresses.size());
+        for (String address : addresses) {
+            String key = normalize(address);
+            Outcome outcome = outcomes.get(key);
+            Map<String, Object> result;
+            if (local.containsKey(key)) {
+                result = new HashMap<>(local.get(key));
+            } else if (outcome.entry() != null) {
+                result = new HashMap<>(geocodingService.toResponse(outcome.entry()));
+            } else {
+                result = new HashMap<>(Map.of("error", outcome.error()));
+            }
+            result.put("query", address);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Start filling in addresses of location_tracking points in [from, to) in the background
+     * @return false if a backfill is already running
+     */
+    public boolean startLocationTrackingBackfill(LocalDateTime from, LocalDateTime to) {
+        return startBackfill("location_tracking", () -> backfillLocationTracking(from, to));
+    }
+
+    /**
+     * Start filling in coordinates of Locations saved without them in the background
+     * @return false if a backfill is already running
+     */
+    public boolean startLocationBackfill() {
+        return startBackfill("locations", this::backfillLocations);
+    }
+
+    public Map<String, Object> getBackfillStatus() {
+        return backfillStatus;
+    }
+
+    private boolean startBackfill(String target, Runnable task) {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        backfillStatus = Map.of("running", true, "target", target, "startedAt", LocalDateTime.now());
+        backfillRunner.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Geocoding backfill of {} failed: {}", target, e.getMessage(), e);
+                backfillStatus = Map.of("running", false, "target", target, "error", String.valueOf(e.getMessage()));
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void backfillLocationTracking(LocalDateTime from, LocalDateTime to) {
+        CoordinateDTO after = FIRST_COORDINATE;
+        long coordinates = 0;
+        long updated = 0;
+        List<CoordinateDTO> page;
+        while (!(page = locationTrackingRepository.findUngeocodedCoordinates(from, to, after, backfillPageSize)).isEmpty()) {
+            Map<CoordinateDTO, String> addresses = new LinkedHashMap<>();
+            resolveReverse(backfillLane, page).forEach((coordinate, result) -> {
+                Object address = result.get("formattedAddress");
+                if (address != null) {
+                    addresses.put(coordinate, address.toString());
+                }
+            });
+            updated += locationTrackingRepository.updateAddresses(from, to, addresses);
+            coordinates += page.size();
+            after = page.get(page.size() - 1);
+            backfillStatus = Map.of("running", true, "target", "location_tracking",
+                    "coordinates", coordinates, "updated", updated);
+        }
+        backfillStatus = Map.of("running", false, "target", "location_tracking",
+                "coordinates", coordinates, "updated", updated, "finishedAt", LocalDateTime.now());
+        log.info("Geocoding backfill resolved {} coordinates and updated {} location points", coordinates, updated);
+    }
+
+    private void backfillLocations() {
+        List<Location> locations = locationRepository.findWithoutCoordinates();
+        List<Location> updated = new ArrayList<>();
+        Map<Long, String> queries = new LinkedHashMap<>();
+        for (Location location : locations) {
+            String query = Stream.of(location.getAddress(), location.getCity(), location.getState(),
+                            location.getPostalCode(), location.getCountry())
+                    .filter(part -> part != null && !part.isBlank())
+                    .collect(Collectors.joining(", "));
+            Map<String, Object> local = geocodingService.findLocal(query);
+            if (local != null) {
+                location.setLatitude((Double) local.get("lat"));
+                location.setLongitude((Double) local.get("lng"));
+                updated.add(location);
+            } else {
+                queries.put(location.getId(), query);
+            }
+        }
+        Map<Long, Outcome> outcomes = callUpstream(backfillLane, queries.keySet(),
+                id -> geocodingService.fetchForward(queries.get(id)));
+
+        for (Location location : locations) {
+            Outcome outcome = outcomes.get(location.getId());
+            GeocodingCache entry = outcome == null ? null : outcome.entry();
+            if (entry != null) {
+                location.setLatitude(entry.getLatitude());
+                location.setLongitude(entry.getLongitude());
+                updated.add(location);
+            }
+        }
+        locationRepository.saveAll(updated);
+        geocodingService.storeAll(outcomes.values().stream().map(Outcome::entry).filter(Objects::nonNull).toList());
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(new JobSitesChangedEvent());
+        }
+        backfillStatus = Map.of("running", false, "target", "locations",
+                "locations", locations.size(), "updated", updated.size(), "finishedAt", LocalDateTime.now());
+        log.info("Geocoding backfill set coordinates on {} of {} locations", updated.size(), locations.size());
+    }
+
+    /**
+     * Reverse geocode distinct rounded coordinates, from the caches where possible
+     */
+    private Map<CoordinateDTO, Map<String, Object>> resolveReverse(Lane lane, List<CoordinateDTO> keys) {
+        Map<CoordinateDTO, Map<String, Object>> resolved = new LinkedHashMap<>();
+        List<CoordinateDTO> misses = new ArrayList<>();
+        for (CoordinateDTO key : keys) {
+            GeocodingResultCache.Lookup cached = geocodingService.findCached(key.getLatitude(), key.getLongitude());
+            if (cached == null) {
+                misses.add(key);
+            } else if (cached.isNegative()) {
+                resolved.put(key, error(key, "No geocoding results found (cached)"));
+            } else {
+                resolved.put(key, cached.result());
+            }
+        }
+
+        Map<CoordinateDTO, Outcome> fetched = callUpstream(lane, misses,
+                key -> geocodingService.fetchReverse(key.getLatitude(), key.getLongitude()));
+        List<GeocodingCache> toStore = new ArrayList<>();
+        fetched.forEach((key, outcome) -> {
+            if (outcome.entry() != null) {
+                toStore.add(outcome.entry());
+                resolved.put(key, geocodingService.toResponse(outcome.entry()));
+            } else {
+                resolved.put(key, error(key, outcome.error()));
+            }
+        });
+        geocodingService.storeAll(toStore);
+        return resolved;
+    }
+
+    /**
+     * Run upstream calls on the lane's worker pool under its rate limit
+     * @throws GeocodingUnavailableException if the lane's queue cannot take all the calls
+     */
+    private <K> Map<K, Outcome> callUpstream(Lane lane, Collection<K> keys, Function<K, GeocodingCache> call) {
+        Map<K, Future<GeocodingCache>> futures = new LinkedHashMap<>();
+        try {
+            for (K key : keys) {
+                futures.put(key, lane.executor().submit(() -> {
+                    lane.rateLimiter().acquire();
+                    return call.apply(key);
+                }));
+            }
+        } catch (TaskRejectedException e) {
+            futures.values().forEach(f -> f.cancel(true));
+            throw new GeocodingUnavailableException("Too many geocoding lookups queued, try again later");
+        }
+        Map<K, Outcome> outcomes = new LinkedHashMap<>();
+        for (Map.Entry<K, Future<GeocodingCache>> future : futures.entrySet()) {
+            try {
+                GeocodingCache entry = future.getValue().get();
+                outcomes.put(future.getKey(), entry != null ? new Outcome(entry, null) : new Outcome(null, "No geocoding results found"));
+            } catch (ExecutionException e) {
+                outcomes.put(future.getKey(), new Outcome(null, String.valueOf(e.getCause().getMessage())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(f -> f.cancel(true));
+                throw new RuntimeException("Interrupted while geocoding", e);
+            }
+        }
+        return outcomes;
+    }
+
+    private static ThreadPoolTaskExecutor executor(String threadNamePrefix, int threads, int queueCapacity,
+                                                   RejectedExecutionHandler rejectionPolicy) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(rejectionPolicy);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.initialize();
+        return executor;
+    }
+
+    private static Map<String, Object> error(CoordinateDTO key, String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("lat", key.getLatitude());
+        result.put("lng", key.getLongitude());
+        result.put("error", message);
+        return result;
+    }
+
+    private static String normalize(String address) {
+        return address.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Outcome(GeocodingCache entry, String error) {
+    }
+
+    private record Lane(ThreadPoolTaskExecutor executor, TokenBucket rateLimiter) {
+    }
+}
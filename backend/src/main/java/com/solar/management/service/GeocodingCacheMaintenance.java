@@ -0,0 +1,71 @@
+package com.solar.management.service;
+
+import com.solar.management.entity.GeocodingCache;
+import com.solar.management.repository.GeocodingCacheRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Scheduled upkeep of geocoding_cache
+ * Entries about to expire, or expired within the stale grace period, are queued for background
+ * refresh so reads keep being answered from the cache. Entries expired beyond the grace period
+ * are deleted in batches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeocodingCacheMaintenance {
+
+    private final GeocodingCacheRepository cacheRepository;
+    private final GeocodingService geocodingService;
+
+    @Value("${app.geocoding.refresh.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.geocoding.refresh.stale-grace-days:30}")
+    private long staleGraceDays;
+
+    @Value("${app.geocoding.refresh.ahead-days:3}")
+    private long aheadDays;
+
+    @Value("${app.geocoding.refresh.max-per-run:500}")
+    private int maxPerRun;
+
+    @Value("${app.geocoding.refresh.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Scheduled(cron = "${app.geocoding.refresh.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime deadBefore = LocalDateTime.now().minusDays(staleGraceDays);
+
+        long purged = 0;
+        int batch;
+        while ((batch = cacheRepository.deleteExpiredBatch(deadBefore, purgeBatchSize)) > 0) {
+            purged += batch;
+        }
+
+        if (geocodingService.isProviderUnavailable()) {
+            log.info("Geocoding cache maintenance: purged {} dead entries, skipped refresh while provider is unavailable", purged);
+            return;
+        }
+        List<GeocodingCache> expiring = cacheRepository.findByExpiresAtBetweenOrderByExpiresAtAsc(
+                deadBefore, LocalDateTime.now().plusDays(aheadDays), PageRequest.of(0, maxPerRun));
+        int queued = 0;
+        for (GeocodingCache entry : expiring) {
+            if (geocodingService.refreshAsync(entry)) {
+                queued++;
+            }
+        }
+        log.info("Geocoding cache maintenance: purged {} dead entries, queued {} refreshes", purged, queued);
+    }
+}
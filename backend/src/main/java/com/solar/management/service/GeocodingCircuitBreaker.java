@@ -0,0 +1,140 @@
+package com.solar.management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead and circuit breaker around GeocodingProvider calls
+ * At most max-concurrent calls run at once; callers wait up to acquire-timeout-ms for a slot.
+ * After failure-threshold consecutive failures the circuit opens and calls fail fast with
+ * GeocodingUnavailableException for open-seconds, then a single trial call decides whether
+ * it closes again. Keeps a slow or failing Maps API from tying up request threads.
+ */
+@Component
+@Slf4j
+public class GeocodingCircuitBreaker {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    private final LongAdder rejectedOpen = new LongAdder();
+    private final LongAdder rejectedBusy = new LongAdder();
+    private final LongAdder timesOpened = new LongAdder();
+
+    public GeocodingCircuitBreaker(
+            @Value("${app.geocoding.upstream.max-concurrent:8}") int maxConcurrent,
+            @Value("${app.geocoding.upstream.acquire-timeout-ms:200}") long acquireTimeoutMs,
+            @Value("${app.geocoding.upstream.failure-threshold:5}") int failureThreshold,
+            @Value("${app.geocoding.upstream.open-seconds:30}") long openSeconds
+    ) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+    }
+
+    /**
+     * Run a provider call if the circuit and the bulkhead allow it
+     * @throws GeocodingUnavailableException if the call was not attempted
+     */
+    public <T> T call(Callable<T> call) throws Exception {
+        if (!tryAcquire()) {
+            rejectedBusy.increment();
+            throw new GeocodingUnavailableException("Too many concurrent geocoding calls");
+        }
+        try {
+            if (!allowRequest()) {
+                rejectedOpen.increment();
+                throw new GeocodingUnavailableException("Geocoding is temporarily unavailable");
+            }
+            try {
+                T result = call.call();
+                onSuccess();
+                return result;
+            } catch (Exception e) {
+                onFailure();
+                throw e;
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    public boolean isOpen() {
+        return state.get() != State.CLOSED;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitState", state.get().name());
+        stats.put("circuitOpened", timesOpened.sum());
+        stats.put("rejectedOpen", rejectedOpen.sum());
+        stats.put("rejectedBusy", rejectedBusy.sum());
+        stats.put("inFlight", maxConcurrent - permits.availablePermits());
+        return stats;
+    }
+
+    private boolean tryAcquire() throws InterruptedException {
+        return permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closed circuits admit every call; an open one admits a single trial once open-seconds have passed
+     */
+    private boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        return current == State.OPEN && System.nanoTime() - openedAt >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Geocoding circuit closed");
+        }
+    }
+
+    private void onFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            open();
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED) {
+            // Stamp before publishing OPEN so no reader sees a stale opening time
+            openedAt = System.nanoTime();
+            if (!state.compareAndSet(State.CLOSED, State.OPEN)) {
+                return;
+            }
+            timesOpened.increment();
+            log.warn("Geocoding circuit opened after {} consecutive failures", failureThreshold);
+        }
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        state.set(State.OPEN);
+        timesOpened.increment();
+        log.warn("Geocoding circuit re-opened after a failed trial call");
+    }
+}
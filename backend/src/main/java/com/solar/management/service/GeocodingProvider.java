@@ -0,0 +1,25 @@
+package com.solar.management.service;
+
+/**
+ * Upstream geocoder behind the geocoding cache
+ * Implementations may block on network I/O; GeocodingService only calls them through
+ * GeocodingCircuitBreaker. Selected with app.geocoding.provider.
+ */
+public interface GeocodingProvider {
+
+    /**
+     * Best address for coordinates
+     * @return Address, or null if there is none
+     */
+    Address reverse(double latitude, double longitude) throws Exception;
+
+    /**
+     * Best match for a free-text address
+     * @return Address with coordinates, or null if there is none
+     */
+    Address forward(String address) throws Exception;
+
+    record Address(String formattedAddress, String city, String state, String postalCode, String country,
+                   double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.solar.management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process LRU cache of reverse geocoding results, in front of geocoding_cache
+ * Entries expire after a TTL. Lookups with no upstream result are cached as negative entries
+ * with a much shorter TTL so repeated failures don't hit the Maps API every time.
+ * Also keeps the hit/miss and upstream latency counters reported by /api/geocoding/cache/stats.
+ */
+@Component
+public class GeocodingResultCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final Map<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder proximityHits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder upstreamFailures = new LongAdder();
+    private final LongAdder upstreamNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GeocodingResultCache(
+            @Value("${app.geocoding.cache.max-entries:10000}") int maxEntries,
+            @Value("${app.geocoding.cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${app.geocoding.cache.negative-ttl-seconds:300}") long negativeTtlSeconds
+    ) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.negativeTtlMillis = TimeUnit.SECONDS.toMillis(negativeTtlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > GeocodingResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached lookup for rounded coordinates; null on a miss
+     * A negative entry is returned as a Lookup with no result
+     */
+    public Lookup get(double latitude, double longitude) {
+        Key key = new Key(latitude, longitude);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis <= System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.result == null) {
+            negativeHits.increment();
+        } else {
+            hits.increment();
+        }
+        return new Lookup(entry.result);
+    }
+
+    /**
+     * Cache a result, never beyond the given expiry of its database row
+     */
+    public void put(double latitude, double longitude, Map<String, Object> result, long notAfterMillis) {
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMillis, notAfterMillis);
+        store(new Key(latitude, longitude), new Entry(Collections.unmodifiableMap(result), expiresAt));
+    }
+
+    public void putNegative(double latitude, double longitude) {
+        store(new Key(latitude, longitude), new Entry(null, System.currentTimeMillis() + negativeTtlMillis));
+    }
+
+    public void evict(double latitude, double longitude) {
+        synchronized (entries) {
+            entries.remove(new Key(latitude, longitude));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public void recordDatabaseHit() {
+        databaseHits.increment();
+    }
+
+    public void recordProximityHit() {
+        proximityHits.increment();
+    }
+
+    public void recordStaleHit() {
+        staleHits.increment();
+    }
+
+    public void recordRefresh() {
+        refreshes.increment();
+    }
+
+    public void recordUpstreamCall(long nanos, boolean success) {
+        upstreamCalls.increment();
+        upstreamNanos.add(nanos);
+        if (!success) {
+            upstreamFailures.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum() + negativeHits.sum();
+        long lookups = hitCount + misses.sum();
+        long calls = upstreamCalls.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRatio", lookups == 0 ? 0d : (double) hitCount / lookups);
+        stats.put("databaseHits", databaseHits.sum());
+        stats.put("proximityHits", proximityHits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("upstreamCalls", calls);
+        stats.put("upstreamFailures", upstreamFailures.sum());
+        stats.put("upstreamAvgMillis", calls == 0 ? 0d : upstreamNanos.sum() / 1_000_000d / calls);
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private void store(Key key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private record Key(double latitude, double longitude) {
+    }
+
+    private record Entry(Map<String, Object> result, long expiresAtMillis) {
+    }
+
+    /**
+     * Result of a cache hit; result is null for a cached "no result"
+     */
+    public record Lookup(Map<String, Object> result) {
+        public boolean isNegative() {
+            return result == null;
+        }
+    }
+}
@@ -1,138 +1,502 @@
 package com.solar.management.service;
 
-import com.google.maps.GeoApiContext;
-import com.google.maps.GeocodingApi;
-import com.google.maps.model.GeocodingResult;
-import com.google.maps.model.AddressComponent;
-import com.google.maps.model.AddressComponentType;
-import com.google.maps.model.LatLng;
 import com.solar.management.entity.GeocodingCache;
 import com.solar.management.repository.GeocodingCacheRepository;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class GeocodingService {
 
     private static final Logger logger = LoggerFactory.getLogger(GeocodingService.class);
 
+    // Precision 7 cells are about 150 m; a cell and its neighbours cover any radius below that
+    private static final int GEOHASH_PRECISION = 7;
+    private static final double METERS_PER_DEGREE = 111_320d;
+
     private final GeocodingCacheRepository cacheRepository;
-    private final GeoApiContext geoApiContext;
+    private final GeocodingProvider provider;
+    private final GeocodingCircuitBreaker circuitBreaker;
+    private final GeocodingResultCache resultCache;
+    private final double proximityRadiusMeters;
+    private final AddressGazetteer gazetteer;
+    private final int autocompleteFallbackMinLength;
+    private final long staleGraceDays;
+    private final TokenBucket refreshRateLimiter;
+    private final Set<CoordinateKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1000), r -> {
+                Thread thread = new Thread(r, "geocoding-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final ConcurrentMap<CoordinateKey, CompletableFuture<Map<String, Object>>> inFlightLookups =
+            new ConcurrentHashMap<>();
 
     public GeocodingService(
             GeocodingCacheRepository cacheRepository,
-            @Value("${google.maps.api-key}") String apiKey
+            GeocodingResultCache resultCache,
+            GeocodingProvider provider,
+            GeocodingCircuitBreaker circuitBreaker,
+            @Value("${app.geocoding.proximity-radius-meters:15}") double proximityRadiusMeters,
+            AddressGazetteer gazetteer,
+            @Value("${app.gazetteer.fallback-min-length:12}") int autocompleteFallbackMinLength,
+            @Value("${app.geocoding.refresh.stale-grace-days:30}") long staleGraceDays,
+            @Value("${app.geocoding.refresh.rate-per-second:2}") double refreshRatePerSecond
     ) {
+        this.staleGraceDays = staleGraceDays;
+        this.refreshRateLimiter = new TokenBucket(refreshRatePerSecond, 1);
+        this.gazetteer = gazetteer;
+        this.autocompleteFallbackMinLength = autocompleteFallbackMinLength;
         this.cacheRepository = cacheRepository;
-        this.geoApiContext = new GeoApiContext.Builder()
-                .apiKey(apiKey)
-                .build();
+        this.resultCache = resultCache;
+        this.proximityRadiusMeters = proximityRadiusMeters;
+        this.provider = provider;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
      * Reverse geocode coordinates to address with caching
+     * Lookups go to the in-process cache, then geocoding_cache, then the geocoding provider.
+     * Concurrent misses for the same rounded coordinates share a single load, so only one
+     * thread queries the database, calls the API and inserts the cache row.
      * @param latitude Latitude
      * @param longitude Longitude
      * @return Map containing address components
      */
-    @Transactional
     public Map<String, Object> reverseGeocode(double latitude, double longitude) {
         // Round coordinates to 5 decimal places (~1m precision) for caching
         double roundedLat = roundCoordinate(latitude);
         double roundedLng = roundCoordinate(longitude);
 
+        GeocodingResultCache.Lookup hot = resultCache.get(roundedLat, roundedLng);
+        if (hot != null) {
+            if (hot.isNegative()) {
+                throw new RuntimeException("No geocoding results found for coordinates: " + latitude + ", " + longitude);
+            }
+            return new HashMap<>(hot.result());
+        }
+
+        CoordinateKey key = new CoordinateKey(roundedLat, roundedLng);
+        CompletableFuture<Map<String, Object>> load = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> inFlight = inFlightLookups.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return new HashMap<>(awaitLookup(inFlight));
+        }
+        try {
+            Map<String, Object> response = load(roundedLat, roundedLng, latitude, longitude);
+            load.complete(response);
+            return new HashMap<>(response);
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            // The result is already in the in-process cache, so later callers won't reload
+            inFlightLookups.remove(key, load);
+        }
+    }
+
+    private Map<String, Object> awaitLookup(CompletableFuture<Map<String, Object>> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Load from geocoding_cache, or from the geocoding provider and store the result
+     */
+    private Map<String, Object> load(double roundedLat, double roundedLng, double latitude, double longitude) {
         // Check cache first
         Optional<GeocodingCache> cached = cacheRepository.findByLatitudeAndLongitude(roundedLat, roundedLng);
 
         if (cached.isPresent() && cached.get().getExpiresAt().isAfter(LocalDateTime.now())) {
-            logger.info("Cache hit for coordinates: {}, {}", roundedLat, roundedLng);
+            logger.debug("Cache hit for coordinates: {}, {}", roundedLat, roundedLng);
+            resultCache.recordDatabaseHit();
+            return remember(cached.get());
+        }
+
+        // Expired within the grace period: answer now and refresh in the background
+        if (cached.isPresent() && isStale(cached.get())) {
+            resultCache.recordStaleHit();
+            refreshAsync(cached.get());
             return convertCacheToResponse(cached.get());
         }
 
-        // Cache miss or expired - call Google API
-        logger.info("Cache miss for coordinates: {}, {}, calling Google Maps API", roundedLat, roundedLng);
+        // Reuse the nearest cached address close enough to be the same place
+        Optional<GeocodingCache> nearby = findNearby(roundedLat, roundedLng);
+        if (nearby.isPresent()) {
+            logger.debug("Proximity cache hit for coordinates: {}, {}", roundedLat, roundedLng);
+            resultCache.recordProximityHit();
+            return remember(roundedLat, roundedLng, nearby.get());
+        }
 
-        try {
-            GeocodingResult[] results = GeocodingApi.reverseGeocode(
-                geoApiContext,
-                new LatLng(latitude, longitude)
-            ).await();
+        // Cache miss or expired - call the geocoding provider
+        logger.info("Cache miss for coordinates: {}, {}, calling geocoding provider", roundedLat, roundedLng);
 
-            if (results == null || results.length == 0) {
-                throw new RuntimeException("No geocoding results found for coordinates: " + latitude + ", " + longitude);
+        GeocodingProvider.Address result;
+        try {
+            result = callReverseGeocode(roundedLat, roundedLng, latitude, longitude, true);
+        } catch (GeocodingUnavailableException e) {
+            // Fail fast to whatever is cached, however old
+            if (cached.isPresent()) {
+                resultCache.recordStaleHit();
+                return convertCacheToResponse(cached.get());
             }
+            throw e;
+        }
+        if (result == null) {
+            throw new RuntimeException("No geocoding results found for coordinates: " + latitude + ", " + longitude);
+        }
+
+        // Refresh an expired entry in place; the coordinates are unique
+        GeocodingCache cacheEntry = toCacheEntry(cached.orElseGet(GeocodingCache::new), roundedLat, roundedLng, result);
 
-            GeocodingResult result = results[0];
-            Map<String, String> components = extractAddressComponents(result.addressComponents);
-
-            // Create cache entry
-            GeocodingCache cacheEntry = new GeocodingCache(
-                roundedLat,
-                roundedLng,
-                result.formattedAddress,
-                components.get("city"),
-                components.get("state"),
-                components.get("postalCode"),
-                components.get("country")
-            );
-
-            // Save to cache
+        // Save to cache; another instance may have inserted the same coordinates meanwhile
+        try {
             cacheRepository.save(cacheEntry);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Geocoding cache row for {}, {} was inserted concurrently", roundedLat, roundedLng);
+        }
+
+        return remember(cacheEntry);
+    }
+
+    /**
+     * Forward geocode an address, from the local gazetteer when it has the address
+     * @param address Address to look up
+     * @return Map containing address components and coordinates
+     */
+    public Map<String, Object> forwardGeocode(String address) {
+        Map<String, Object> local = findLocal(address);
+        if (local != null) {
+            return local;
+        }
+        GeocodingCache entry = fetchForward(address);
+        if (entry == null) {
+            throw new RuntimeException("No geocoding results found for address: " + address);
+        }
+        storeAll(List.of(entry));
+        return convertCacheToResponse(entry);
+    }
 
-            return convertCacheToResponse(cacheEntry);
+    /**
+     * Forward geocode an address from the local gazetteer only, without calling the geocoding provider
+     * @return Map containing address components and coordinates, or null if the gazetteer does not have it
+     */
+    public Map<String, Object> findLocal(String address) {
+        GazetteerTable.Entry local = gazetteer.find(address);
+        return local == null ? null : convertGazetteerToResponse(local);
+    }
+
+    /**
+     * Address suggestions for partially typed text, served from the local gazetteer
+     * Only when the gazetteer has no match and the text is long enough to be a whole
+     * address is the geocoding provider asked, for a single suggestion
+     */
+    public List<Map<String, Object>> autocomplete(String query, int limit) {
+        List<GazetteerTable.Entry> matches = gazetteer.autocomplete(query, limit);
+        if (!matches.isEmpty() || query.trim().length() < autocompleteFallbackMinLength) {
+            return matches.stream().map(this::convertGazetteerToResponse).toList();
+        }
+        try {
+            return List.of(forwardGeocode(query));
+        } catch (RuntimeException e) {
+            logger.debug("No autocomplete suggestion for '{}': {}", query, e.getMessage());
+            return List.of();
+        }
+    }
 
+    /**
+     * Cached result for rounded coordinates from the in-process cache, geocoding_cache
+     * or a nearby entry, without calling the geocoding provider
+     * @return Lookup (negative for a recently failed lookup), or null if not cached
+     */
+    public GeocodingResultCache.Lookup findCached(double roundedLat, double roundedLng) {
+        GeocodingResultCache.Lookup hot = resultCache.get(roundedLat, roundedLng);
+        if (hot != null) {
+            return hot;
+        }
+        Optional<GeocodingCache> cached = cacheRepository.findByLatitudeAndLongitude(roundedLat, roundedLng);
+        if (cached.isPresent() && cached.get().getExpiresAt().isAfter(LocalDateTime.now())) {
+            resultCache.recordDatabaseHit();
+            return new GeocodingResultCache.Lookup(remember(cached.get()));
+        }
+        if (cached.isPresent() && isStale(cached.get())) {
+            resultCache.recordStaleHit();
+            refreshAsync(cached.get());
+            return new GeocodingResultCache.Lookup(convertCacheToResponse(cached.get()));
+        }
+        Optional<GeocodingCache> nearby = findNearby(roundedLat, roundedLng);
+        if (nearby.isPresent()) {
+            resultCache.recordProximityHit();
+            return new GeocodingResultCache.Lookup(remember(roundedLat, roundedLng, nearby.get()));
+        }
+        return null;
+    }
+
+    /**
+     * Reverse geocode rounded coordinates with the geocoding provider, without storing the result
+     * @return Unsaved cache entry, or null if there is no address for the coordinates
+     */
+    public GeocodingCache fetchReverse(double roundedLat, double roundedLng) {
+        GeocodingProvider.Address result = callReverseGeocode(roundedLat, roundedLng, roundedLat, roundedLng, true);
+        return result == null ? null : toCacheEntry(new GeocodingCache(), roundedLat, roundedLng, result);
+    }
+
+    /**
+     * Forward geocode an address with the geocoding provider, without storing the result
+     * @return Unsaved cache entry at the rounded coordinates of the best match, or null if none
+     */
+    public GeocodingCache fetchForward(String address) {
+        GeocodingProvider.Address result;
+        long started = System.nanoTime();
+        try {
+            result = circuitBreaker.call(() -> provider.forward(address));
+            resultCache.recordUpstreamCall(System.nanoTime() - started, true);
+        } catch (GeocodingUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Error during reverse geocoding for coordinates: {}, {}", latitude, longitude, e);
-            throw new RuntimeException("Failed to reverse geocode coordinates: " + e.getMessage(), e);
+            resultCache.recordUpstreamCall(System.nanoTime() - started, false);
+            logger.error("Error during forward geocoding for address: {}", address, e);
+            throw new RuntimeException("Failed to geocode address: " + e.getMessage(), e);
         }
+        if (result == null) {
+            return null;
+        }
+        return toCacheEntry(new GeocodingCache(), roundCoordinate(result.latitude()),
+                roundCoordinate(result.longitude()), result);
     }
 
     /**
-     * Extract address components from Google API result
-     */
-    private Map<String, String> extractAddressComponents(AddressComponent[] components) {
-        Map<String, String> result = new HashMap<>();
-
-        for (AddressComponent component : components) {
-            for (AddressComponentType type : component.types) {
-                switch (type) {
-                    case STREET_NUMBER:
-                        result.put("streetNumber", component.longName);
-                        break;
-                    case ROUTE:
-                        result.put("route", component.longName);
-                        break;
-                    case LOCALITY:
-                        result.put("city", component.longName);
-                        break;
-                    case ADMINISTRATIVE_AREA_LEVEL_1:
-                        result.put("state", component.shortName);
-                        break;
-                    case POSTAL_CODE:
-                        result.put("postalCode", component.longName);
-                        break;
-                    case COUNTRY:
-                        result.put("country", component.longName);
-                        break;
-                    default:
-                        break;
+     * Store new results with one batched insert and add them to the in-process cache
+     * Rows whose coordinates are already cached are skipped
+     */
+    public void storeAll(List<GeocodingCache> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        cacheRepository.batchInsert(entries);
+        for (GeocodingCache entry : entries) {
+            remember(entry);
+        }
+    }
+
+    /**
+     * Response map for a cache entry, as returned by reverseGeocode
+     */
+    public Map<String, Object> toResponse(GeocodingCache entry) {
+        return convertCacheToResponse(entry);
+    }
+
+    /**
+     * Re-fetch a cached entry from the geocoding provider on the background refresh thread
+     * Refreshes are rate limited and deduplicated by coordinates; readers keep getting the
+     * current entry until the refreshed one is saved.
+     * @return false if a refresh for the coordinates is already pending or the queue is full
+     */
+    public boolean refreshAsync(GeocodingCache entry) {
+        CoordinateKey key = new CoordinateKey(entry.getLatitude(), entry.getLongitude());
+        if (!refreshing.add(key)) {
+            return false;
+        }
+        Long id = entry.getId();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(id);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    logger.warn("Failed to refresh geocoding cache entry {}: {}", id, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
                 }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            return false;
+        }
+    }
+
+    private void refresh(Long id) throws InterruptedException {
+        refreshRateLimiter.acquire();
+        GeocodingCache entry = cacheRepository.findById(id).orElse(null);
+        if (entry == null) {
+            return;
+        }
+        GeocodingProvider.Address result = callReverseGeocode(entry.getLatitude(), entry.getLongitude(),
+                entry.getLatitude(), entry.getLongitude(), false);
+        if (result == null) {
+            // Keep serving the old address until it is purged
+            return;
+        }
+        cacheRepository.save(toCacheEntry(entry, entry.getLatitude(), entry.getLongitude(), result));
+        resultCache.recordRefresh();
+        remember(entry);
+    }
+
+    private boolean isStale(GeocodingCache entry) {
+        return entry.getExpiresAt().isAfter(LocalDateTime.now().minusDays(staleGraceDays));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Call the geocoding provider through the circuit breaker, recording latency
+     * Calls rejected by the circuit breaker are not negatively cached.
+     * @param cacheFailures Negatively cache failures and empty results
+     * @return Best address, or null if there is none
+     */
+    private GeocodingProvider.Address callReverseGeocode(double roundedLat, double roundedLng,
+                                                         double latitude, double longitude, boolean cacheFailures) {
+        GeocodingProvider.Address result;
+        long started = System.nanoTime();
+        try {
+            result = circuitBreaker.call(() -> provider.reverse(latitude, longitude));
+            resultCache.recordUpstreamCall(System.nanoTime() - started, true);
+        } catch (GeocodingUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            resultCache.recordUpstreamCall(System.nanoTime() - started, false);
+            if (cacheFailures) {
+                resultCache.putNegative(roundedLat, roundedLng);
             }
+            logger.error("Error during reverse geocoding for coordinates: {}, {}", latitude, longitude, e);
+            throw new RuntimeException("Failed to reverse geocode coordinates: " + e.getMessage(), e);
         }
 
+        if (result == null && cacheFailures) {
+            resultCache.putNegative(roundedLat, roundedLng);
+        }
         return result;
     }
 
+    private GeocodingCache toCacheEntry(GeocodingCache cacheEntry, double roundedLat, double roundedLng,
+                                        GeocodingProvider.Address result) {
+        cacheEntry.setLatitude(roundedLat);
+        cacheEntry.setLongitude(roundedLng);
+        cacheEntry.setGeohash(Geohash.encode(roundedLat, roundedLng, GEOHASH_PRECISION));
+        cacheEntry.setFormattedAddress(result.formattedAddress());
+        cacheEntry.setCity(result.city());
+        cacheEntry.setState(result.state());
+        cacheEntry.setPostalCode(result.postalCode());
+        cacheEntry.setCountry(result.country());
+        cacheEntry.setCachedAt(LocalDateTime.now());
+        cacheEntry.setExpiresAt(LocalDateTime.now().plusDays(30));
+        return cacheEntry;
+    }
+
+    /**
+     * Put a database entry in the in-process cache and return its response
+     */
+    private Map<String, Object> remember(GeocodingCache cache) {
+        return remember(cache.getLatitude(), cache.getLongitude(), cache);
+    }
+
+    /**
+     * Put a database entry in the in-process cache under the looked-up coordinates
+     */
+    private Map<String, Object> remember(double latitude, double longitude, GeocodingCache cache) {
+        Map<String, Object> response = convertCacheToResponse(cache);
+        resultCache.put(latitude, longitude, response,
+                cache.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return response;
+    }
+
+    /**
+     * Nearest unexpired cached entry within the proximity radius, from the point's geohash cell and its neighbours
+     */
+    private Optional<GeocodingCache> findNearby(double latitude, double longitude) {
+        if (proximityRadiusMeters <= 0) {
+            return Optional.empty();
+        }
+        List<GeocodingCache> candidates = cacheRepository.findValidByGeohashIn(
+                Geohash.cellsAround(latitude, longitude, GEOHASH_PRECISION), LocalDateTime.now());
+        GeocodingCache nearest = null;
+        // Neighbouring cells only cover up to one cell size from the point
+        double nearestMeters = Math.min(proximityRadiusMeters, Geohash.minCellSizeMeters(latitude, GEOHASH_PRECISION));
+        double metersPerDegreeLon = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        for (GeocodingCache candidate : candidates) {
+            double dy = (candidate.getLatitude() - latitude) * METERS_PER_DEGREE;
+            double dx = (candidate.getLongitude() - longitude) * metersPerDegreeLon;
+            double meters = Math.sqrt(dx * dx + dy * dy);
+            if (meters <= nearestMeters) {
+                nearest = candidate;
+                nearestMeters = meters;
+            }
+        }
+        return Optional.ofNullable(nearest);
+    }
+
+    /**
+     * Assign geohash cells to entries cached before proximity lookups existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillGeohashes() {
+        int updated = 0;
+        List<GeocodingCache> batch;
+        while (!(batch = cacheRepository.findTop500ByGeohashIsNull()).isEmpty()) {
+            for (GeocodingCache entry : batch) {
+                entry.setGeohash(Geohash.encode(entry.getLatitude(), entry.getLongitude(), GEOHASH_PRECISION));
+            }
+            cacheRepository.saveAll(batch);
+            updated += batch.size();
+        }
+        if (updated > 0) {
+            logger.info("Assigned geohash cells to {} geocoding cache entries", updated);
+        }
+    }
+
+    /**
+     * Hit ratio, upstream calls and latency of the geocoding caches
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = resultCache.getStats();
+        stats.putAll(circuitBreaker.getStats());
+        return stats;
+    }
+
+    /**
+     * Whether provider calls are currently being rejected by the circuit breaker
+     */
+    public boolean isProviderUnavailable() {
+        return circuitBreaker.isOpen();
+    }
+
     /**
      * Convert cache entity to response map
      */
@@ -148,22 +512,41 @@ public class GeocodingService {
         return response;
     }
 
+    /**
+     * Convert gazetteer entry to response map
+     */
+    private Map<String, Object> convertGazetteerToResponse(GazetteerTable.Entry entry) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("formattedAddress", entry.address());
+        response.put("city", entry.locality());
+        response.put("state", entry.state());
+        response.put("postalCode", entry.postcode());
+        response.put("country", "Australia");
+        response.put("lat", entry.latitude());
+        response.put("lng", entry.longitude());
+        return response;
+    }
+
     /**
      * Round coordinate to 5 decimal places
      */
-    private double roundCoordinate(double coordinate) {
+    static double roundCoordinate(double coordinate) {
         return BigDecimal.valueOf(coordinate)
                 .setScale(5, RoundingMode.HALF_UP)
                 .doubleValue();
     }
 
     /**
-     * Clean up expired cache entries
+     * Clean up cache entries expired beyond the stale grace period
      */
     @Transactional
     public int cleanupExpiredCache() {
-        int deleted = cacheRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+        int deleted = cacheRepository.deleteByExpiresAtBefore(LocalDateTime.now().minusDays(staleGraceDays));
+        resultCache.clear();
         logger.info("Cleaned up {} expired geocoding cache entries", deleted);
         return deleted;
     }
+
+    private record CoordinateKey(double latitude, double longitude) {
+    }
 }
@@ -0,0 +1,15 @@
+package com.solar.management.service;
+
+/**
+ * Thrown when the geocoding provider is not called because its circuit is open or its
+ * concurrency limit is reached
+ * Mapped to 503 Service Unavailable; failed lookups of this kind are never negatively cached.
+ */
+public class GeocodingUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public GeocodingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,120 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.LocationPointDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-technician geofence state machine driven by persisted location fixes
+ * Each fix is tested against GeofenceIndex in memory. A technician arrives when a fix falls
+ * inside an assigned job's fence, and departs once a fix is farther than the fence radius
+ * times the exit hysteresis factor. Fixes with poor accuracy or out of order are ignored.
+ * GeofenceEvents are published on a dedicated thread, in order, so listeners can use the
+ * database without slowing the ingest flusher.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeofenceEngine implements LocationFixListener {
+
+    private final GeofenceIndex geofenceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "geofence-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.geofence.exit-hysteresis:1.2}")
+    private double exitHysteresis;
+
+    @Value("${app.geofence.max-accuracy-meters:100}")
+    private double maxAccuracyMeters;
+
+    private final ConcurrentMap<Long, TechnicianState> states = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdown();
+    }
+
+    @Override
+    public void onLocationsPersisted(List<LocationPointDTO> points) {
+        for (LocationPointDTO point : points) {
+            if (point.getAccuracy() != null && point.getAccuracy() > maxAccuracyMeters) {
+                continue;
+            }
+            process(point);
+        }
+    }
+
+    private void process(LocationPointDTO point) {
+        long userId = point.getUserId();
+        double lat = point.getLatitude();
+        double lon = point.getLongitude();
+        LocalDateTime time = point.getTimestamp();
+
+        TechnicianState state = states.get(userId);
+        if (state == null) {
+            // First fix since startup: adopt the current position without emitting events
+            GeofenceIndex.Fence fence = geofenceIndex.findContaining(userId, lat, lon);
+            states.put(userId, new TechnicianState(fence != null ? fence.getJobId() : null, time));
+            return;
+        }
+        if (time.isBefore(state.lastFixAt)) {
+            return;
+        }
+        state.lastFixAt = time;
+
+        if (state.insideJobId != null) {
+            GeofenceIndex.Fence current = geofenceIndex.findByJobId(state.insideJobId);
+            if (current != null && current.isAssigned(userId)
+                    && current.distanceMeters(lat, lon) <= current.getRadiusMeters() * exitHysteresis) {
+                return;
+            }
+            publish(new GeofenceEvent(GeofenceEvent.Type.DEPART, userId, state.insideJobId, lat, lon, time));
+            state.insideJobId = null;
+        }
+
+        GeofenceIndex.Fence fence = geofenceIndex.findContaining(userId, lat, lon);
+        if (fence != null) {
+            state.insideJobId = fence.getJobId();
+            publish(new GeofenceEvent(GeofenceEvent.Type.ARRIVE, userId, fence.getJobId(), lat, lon, time));
+        }
+    }
+
+    private void publish(GeofenceEvent event) {
+        log.debug("Geofence {} user {} job {}", event.getType(), event.getUserId(), event.getJobId());
+        publisher.execute(() -> {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (Exception e) {
+                log.error("Geofence event listener failed for {}: {}", event, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Only touched by the single flusher thread, so plain fields are sufficient
+     */
+    private static final class TechnicianState {
+        private Long insideJobId;
+        private LocalDateTime lastFixAt;
+
+        private TechnicianState(Long insideJobId, LocalDateTime lastFixAt) {
+            this.insideJobId = insideJobId;
+            this.lastFixAt = lastFixAt;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.solar.management.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A technician entering or leaving the geofence of a job they are assigned to
+ */
+@Data
+@AllArgsConstructor
+public class GeofenceEvent {
+
+    public enum Type {
+        ARRIVE,
+        DEPART
+    }
+
+    private Type type;
+    private Long userId;
+    private Long jobId;
+    private double latitude;
+    private double longitude;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,183 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.GeofenceSiteRow;
+import com.solar.management.entity.Job;
+import com.solar.management.repository.JobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory uniform grid of active job geofences
+ * Each fence is registered in every grid cell its bounding box touches, so a lookup reads a
+ * single cell and tests only the few fences in it. The grid is immutable and swapped atomically
+ * on rebuild (after job changes commit, and periodically), so lookups never lock or query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeofenceIndex {
+
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final List<Job.JobStatus> ACTIVE_STATUSES =
+            List.of(Job.JobStatus.SCHEDULED, Job.JobStatus.IN_PROGRESS);
+
+    private final JobRepository jobRepository;
+
+    @Value("${app.geofence.default-radius-meters:150}")
+    private double defaultRadiusMeters;
+
+    @Value("${app.geofence.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
+    private volatile Grid grid = new Grid(Map.of(), Map.of(), 0.01);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobSitesChanged(JobSitesChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Periodic refresh catches changes made outside the services (e.g. direct SQL)
+     */
+    @Scheduled(fixedDelayString = "${app.geofence.refresh-ms:300000}", initialDelayString = "${app.geofence.refresh-ms:300000}")
+    public synchronized void rebuild() {
+        List<GeofenceSiteRow> rows = jobRepository.findGeofenceSites(ACTIVE_STATUSES);
+
+        Map<Long, GeofenceSiteRow> sites = new LinkedHashMap<>();
+        Map<Long, List<Long>> technicians = new HashMap<>();
+        for (GeofenceSiteRow row : rows) {
+            sites.putIfAbsent(row.getJobId(), row);
+            technicians.computeIfAbsent(row.getJobId(), id -> new ArrayList<>()).add(row.getTechnicianId());
+        }
+
+        Map<Long, List<Fence>> cells = new HashMap<>();
+        Map<Long, Fence> byJob = new HashMap<>();
+        for (GeofenceSiteRow site : sites.values()) {
+            double radius = site.getGeofenceRadius() != null ? site.getGeofenceRadius() : defaultRadiusMeters;
+            long[] technicianIds = technicians.get(site.getJobId()).stream().mapToLong(Long::longValue).sorted().toArray();
+            Fence fence = new Fence(site.getJobId(), site.getLatitude(), site.getLongitude(), radius, technicianIds);
+            byJob.put(fence.jobId, fence);
+
+            double latSpan = radius / METERS_PER_DEGREE;
+            double lonSpan = radius / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(site.getLatitude()))));
+            long minRow = cellIndex(site.getLatitude() - latSpan, cellSizeDegrees);
+            long maxRow = cellIndex(site.getLatitude() + latSpan, cellSizeDegrees);
+            long minCol = cellIndex(site.getLongitude() - lonSpan, cellSizeDegrees);
+            long maxCol = cellIndex(site.getLongitude() + lonSpan, cellSizeDegrees);
+            for (long row = minRow; row <= maxRow; row++) {
+                for (long col = minCol; col <= maxCol; col++) {
+                    cells.computeIfAbsent(cellKey(row, col), key -> new ArrayList<>()).add(fence);
+                }
+            }
+        }
+
+        Map<Long, Fence[]> frozen = new HashMap<>(cells.size() * 2);
+        cells.forEach((key, fences) -> frozen.put(key, fences.toArray(new Fence[0])));
+        grid = new Grid(frozen, byJob, cellSizeDegrees);
+        log.debug("Geofence index rebuilt with {} job sites in {} cells", sites.size(), frozen.size());
+    }
+
+    /**
+     * Job whose fence contains the point and to which the user is assigned, nearest first; null if none
+     */
+    public Fence findContaining(long userId, double latitude, double longitude) {
+        Grid current = grid;
+        Fence[] candidates = current.cells.get(cellKey(
+                cellIndex(latitude, current.cellSizeDegrees), cellIndex(longitude, current.cellSizeDegrees)));
+        if (candidates == null) {
+            return null;
+        }
+        Fence best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (Fence fence : candidates) {
+            if (!fence.isAssigned(userId)) {
+                continue;
+            }
+            double distance = fence.distanceMeters(latitude, longitude);
+            if (distance <= fence.radiusMeters && distance < bestDistance) {
+                best = fence;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Fence of an active job; null if the job is no longer indexed
+     */
+    public Fence findByJobId(long jobId) {
+        return grid.byJob.get(jobId);
+    }
+
+    private static long cellIndex(double degrees, double cellSize) {
+        return (long) Math.floor(degrees / cellSize);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    private record Grid(Map<Long, Fence[]> cells, Map<Long, Fence> byJob, double cellSizeDegrees) {
+    }
+
+    /**
+     * Circular geofence around a job site
+     */
+    public static final class Fence {
+        private final long jobId;
+        private final double latitude;
+        private final double longitude;
+        private final double radiusMeters;
+        private final double cosLatitude;
+        private final long[] technicianIds;
+
+        private Fence(long jobId, double latitude, double longitude, double radiusMeters, long[] technicianIds) {
+            this.jobId = jobId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusMeters = radiusMeters;
+            this.cosLatitude = Math.cos(Math.toRadians(latitude));
+            this.technicianIds = technicianIds;
+        }
+
+        public long getJobId() {
+            return jobId;
+        }
+
+        public double getRadiusMeters() {
+            return radiusMeters;
+        }
+
+        public boolean isAssigned(long userId) {
+            return Arrays.binarySearch(technicianIds, userId) >= 0;
+        }
+
+        /**
+         * Equirectangular distance; exact enough at geofence scale and much cheaper than haversine
+         */
+        public double distanceMeters(double lat, double lon) {
+            double dy = (lat - latitude) * METERS_PER_DEGREE;
+            double dx = (lon - longitude) * METERS_PER_DEGREE * cosLatitude;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.solar.management.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding of coordinates into base-32 cell names
+ * Points in the same cell share a prefix, so a proximity lookup becomes an equality
+ * match on the cell containing a point and its eight neighbours.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * The cell containing the point and the cells around it; together they cover every point
+     * within one cell height and width of it
+     */
+    public static List<String> cellsAround(double latitude, double longitude, int precision) {
+        int bits = precision * 5;
+        double cellHeight = 180d / (1L << (bits / 2));
+        double cellWidth = 360d / (1L << ((bits + 1) / 2));
+        Set<String> cells = new LinkedHashSet<>();
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            double lat = latitude + dLat * cellHeight;
+            if (lat < -90 || lat > 90) {
+                continue;
+            }
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                double lon = longitude + dLon * cellWidth;
+                if (lon < -180) {
+                    lon += 360;
+                } else if (lon >= 180) {
+                    lon -= 360;
+                }
+                cells.add(encode(lat, lon, precision));
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    /**
+     * Smallest side of a cell in metres at the given latitude
+     */
+    public static double minCellSizeMeters(double latitude, int precision) {
+        int bits = precision * 5;
+        double heightMeters = 180d / (1L << (bits / 2)) * 111_320d;
+        double widthMeters = 360d / (1L << ((bits + 1) / 2)) * 111_320d * Math.cos(Math.toRadians(latitude));
+        return Math.min(heightMeters, widthMeters);
+    }
+}
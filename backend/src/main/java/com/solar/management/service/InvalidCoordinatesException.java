@@ -0,0 +1,14 @@
+package com.solar.management.service;
+
+/**
+ * Thrown when a location fix has missing or out-of-range coordinates
+ * Mapped to 400 Bad Request
+ */
+public class InvalidCoordinatesException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCoordinatesException(String message) {
+        super(message);
+    }
+}
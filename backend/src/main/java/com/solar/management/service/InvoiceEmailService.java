@@ -0,0 +1,138 @@
+package com.solar.management.service;
+
+import com.solar.management.entity.EmailOutboxMessage;
+import com.solar.management.entity.Invoice;
+import com.solar.management.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queue operations for the persistent invoice email outbox
+ * Queueing only inserts a row in the caller's transaction; delivery is done by EmailDeliveryWorker
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class InvoiceEmailService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    @Value("${app.mail.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.retry-base-delay-seconds:60}")
+    private long retryBaseDelaySeconds;
+
+    @Value("${app.mail.retry-max-delay-seconds:3600}")
+    private long retryMaxDelaySeconds;
+
+    /**
+     * Queue an "invoice ready" email to the bill-to contact
+     * @return the queued message, or null if the invoice has no bill-to email
+     */
+    public EmailOutboxMessage queueInvoiceEmail(Invoice invoice) {
+        if (invoice.getBillToEmail() == null || invoice.getBillToEmail().isBlank()) {
+            log.warn("Invoice {} has no bill-to email, not queueing delivery", invoice.getInvoiceNumber());
+            return null;
+        }
+
+        EmailOutboxMessage message = EmailOutboxMessage.builder()
+                .invoice(invoice)
+                .recipient(invoice.getBillToEmail())
+                .subject("Invoice " + invoice.getInvoiceNumber() + " - " + invoice.getTechnicianName())
+                .body(buildInvoiceBody(invoice))
+                .status(EmailOutboxMessage.EmailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        return emailOutboxRepository.save(message);
+    }
+
+    /**
+     * Claim up to batchSize due messages by moving them to SENDING
+     * Uses SKIP LOCKED so concurrent workers never claim the same row
+     */
+    public List<EmailOutboxMessage> claimBatch(int batchSize) {
+        List<EmailOutboxMessage> batch = emailOutboxRepository.findDueForDelivery(
+                LocalDateTime.now(), PageRequest.of(0, batchSize));
+        for (EmailOutboxMessage message : batch) {
+            message.setStatus(EmailOutboxMessage.EmailStatus.SENDING);
+            message.setAttempts(message.getAttempts() + 1);
+        }
+        return batch;
+    }
+
+    public void markSent(Long messageId) {
+        emailOutboxRepository.findById(messageId).ifPresent(message -> {
+            message.setStatus(EmailOutboxMessage.EmailStatus.SENT);
+            message.setSentAt(LocalDateTime.now());
+            message.setLastError(null);
+        });
+    }
+
+    /**
+     * Record a failed attempt: schedule a retry with exponential backoff,
+     * or move the message to DEAD once max attempts are exhausted
+     */
+    public void markFailed(Long messageId, String error) {
+        emailOutboxRepository.findById(messageId).ifPresent(message -> {
+            message.setLastError(error);
+            if (message.getAttempts() >= maxAttempts) {
+                message.setStatus(EmailOutboxMessage.EmailStatus.DEAD);
+                log.error("Email {} to {} moved to dead letter after {} attempts: {}",
+                        messageId, message.getRecipient(), message.getAttempts(), error);
+                return;
+            }
+            long delay = Math.min(retryMaxDelaySeconds,
+                    retryBaseDelaySeconds * (1L << Math.min(message.getAttempts() - 1, 20)));
+            message.setStatus(EmailOutboxMessage.EmailStatus.PENDING);
+            message.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+            log.warn("Email {} to {} failed (attempt {}), retrying in {}s: {}",
+                    messageId, message.getRecipient(), message.getAttempts(), delay, error);
+        });
+    }
+
+    public void setAttachmentPath(Long messageId, String attachmentPath) {
+        emailOutboxRepository.findById(messageId)
+                .ifPresent(message -> message.setAttachmentPath(attachmentPath));
+    }
+
+    public int releaseStaleClaims(LocalDateTime cutoff) {
+        return emailOutboxRepository.releaseStaleClaims(cutoff);
+    }
+
+    @Transactional(readOnly = true)
+    public List<EmailOutboxMessage> getDeadLetters() {
+        return emailOutboxRepository.findByStatus(EmailOutboxMessage.EmailStatus.DEAD);
+    }
+
+    /**
+     * Put a dead-lettered message back on the queue
+     */
+    public EmailOutboxMessage retryDeadLetter(Long messageId) {
+        EmailOutboxMessage message = emailOutboxRepository.findById(messageId)
+                .orElseThrow(() -> new RuntimeException("Email message not found with id: " + messageId));
+        message.setStatus(EmailOutboxMessage.EmailStatus.PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptAt(LocalDateTime.now());
+        return message;
+    }
+
+    private String buildInvoiceBody(Invoice invoice) {
+        return "Hello " + invoice.getBillToName() + ",\n\n" +
+                "Please find attached invoice " + invoice.getInvoiceNumber() +
+                " from " + invoice.getTechnicianName() +
+                " for the period " + invoice.getPeriodStartDate() + " to " + invoice.getPeriodEndDate() + ".\n\n" +
+                "Total amount: $" + invoice.getTotalAmount() + "\n\n" +
+                "Kind regards,\n" + invoice.getTechnicianName() + "\n";
+    }
+}
@@ -36,6 +36,7 @@ public class InvoiceService {
     private final UserRepository userRepository;
     private final ParameterService parameterService;
     private final PdfInvoiceGenerator pdfInvoiceGenerator;
+    private final InvoiceEmailService invoiceEmailService;
     private final AuthenticationHelper authHelper;
 
     @Value("${file.upload-dir:./uploads}")
@@ -93,10 +94,12 @@ public class InvoiceService {
             workLog.setInvoice(invoice);
         });
         
-        invoice.setWorkLogs(new java.util.HashSet<>(workLogs));
-        invoice.calculateTotals();
+        invoice.attachWorkLogs(workLogs);
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+
+        // Delivery happens on EmailDeliveryWorker; this only inserts an outbox row
+        invoiceEmailService.queueInvoiceEmail(savedInvoice);
         
         log.info("Invoice {} generated for technician {} with {} work logs",
                 invoiceNumber, technician.getUsername(), workLogs.size());
@@ -0,0 +1,143 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.JobAssignmentRow;
+import com.solar.management.repository.JobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.LongStream;
+
+/**
+ * In-memory index of which technician is assigned to which job, for access checks
+ * Each technician maps to a sorted array of job ids, so a check is one map lookup and a binary
+ * search over a handful of longs, without loading the job's technicians. Arrays are replaced,
+ * never mutated, so reads don't lock. Assignment changes are applied after they commit, and the
+ * whole index is rebuilt periodically; a miss is confirmed against the database before denying.
+ * A confirmed miss is only added to the index if no assignment change was applied meanwhile, so
+ * a lookup that raced an un-assignment cannot put the removed assignment back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobAccessIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final JobRepository jobRepository;
+
+    private volatile ConcurrentMap<Long, long[]> jobsByTechnician = new ConcurrentHashMap<>();
+    private volatile ConcurrentMap<Long, long[]> techniciansByJob = new ConcurrentHashMap<>();
+    // Bumped under the lock by every update and rebuild
+    private volatile long changes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAssignmentsChanged(JobAssignmentsChangedEvent event) {
+        update(event.getJobId(), event.getTechnicianIds());
+    }
+
+    /**
+     * Periodic rebuild catches assignments changed outside the services (e.g. direct SQL)
+     */
+    @Scheduled(fixedDelayString = "${app.job-access.refresh-ms:600000}", initialDelayString = "${app.job-access.refresh-ms:600000}")
+    public synchronized void rebuild() {
+        List<JobAssignmentRow> rows = jobRepository.findAllAssignments();
+
+        Map<Long, LongStream.Builder> jobs = new HashMap<>();
+        Map<Long, LongStream.Builder> technicians = new HashMap<>();
+        for (JobAssignmentRow row : rows) {
+            jobs.computeIfAbsent(row.getTechnicianId(), id -> LongStream.builder()).add(row.getJobId());
+            technicians.computeIfAbsent(row.getJobId(), id -> LongStream.builder()).add(row.getTechnicianId());
+        }
+
+        ConcurrentMap<Long, long[]> byTechnician = new ConcurrentHashMap<>(jobs.size() * 2);
+        jobs.forEach((id, ids) -> byTechnician.put(id, ids.build().sorted().distinct().toArray()));
+        ConcurrentMap<Long, long[]> byJob = new ConcurrentHashMap<>(technicians.size() * 2);
+        technicians.forEach((id, ids) -> byJob.put(id, ids.build().sorted().distinct().toArray()));
+
+        jobsByTechnician = byTechnician;
+        techniciansByJob = byJob;
+        changes++;
+        log.debug("Job access index rebuilt with {} assignments for {} technicians", rows.size(), byTechnician.size());
+    }
+
+    /**
+     * Whether the user is assigned to the job
+     */
+    public boolean isAssigned(long userId, long jobId) {
+        long[] jobs = jobsByTechnician.get(userId);
+        if (jobs != null && Arrays.binarySearch(jobs, jobId) >= 0) {
+            return true;
+        }
+        // Not indexed yet, e.g. assigned by direct SQL since the last rebuild
+        long seen = changes;
+        if (jobRepository.existsAssignment(jobId, userId)) {
+            addIfUnchanged(userId, jobId, seen);
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void update(long jobId, long[] technicianIds) {
+        long[] assigned = LongStream.of(technicianIds).sorted().distinct().toArray();
+        long[] previous = techniciansByJob.getOrDefault(jobId, NONE);
+
+        for (long technicianId : previous) {
+            if (Arrays.binarySearch(assigned, technicianId) < 0) {
+                jobsByTechnician.computeIfPresent(technicianId, (id, jobs) -> {
+                    long[] remaining = LongStream.of(jobs).filter(job -> job != jobId).toArray();
+                    return remaining.length == 0 ? null : remaining;
+                });
+            }
+        }
+        for (long technicianId : assigned) {
+            jobsByTechnician.compute(technicianId, (id, jobs) -> with(jobs, jobId));
+        }
+        if (assigned.length == 0) {
+            techniciansByJob.remove(jobId);
+        } else {
+            techniciansByJob.put(jobId, assigned);
+        }
+        changes++;
+    }
+
+    private synchronized void addIfUnchanged(long userId, long jobId, long seen) {
+        if (changes != seen) {
+            return;
+        }
+        jobsByTechnician.compute(userId, (id, jobs) -> with(jobs, jobId));
+        techniciansByJob.compute(jobId, (id, technicians) -> with(technicians, userId));
+    }
+
+    private static long[] with(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+}
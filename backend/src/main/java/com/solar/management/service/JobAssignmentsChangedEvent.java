@@ -0,0 +1,15 @@
+package com.solar.management.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a job's technician assignments may have changed
+ * JobAccessIndex applies it after the publishing transaction commits; a deleted job has no technicians
+ */
+@Getter
+@AllArgsConstructor
+public class JobAssignmentsChangedEvent {
+    private final long jobId;
+    private final long[] technicianIds;
+}
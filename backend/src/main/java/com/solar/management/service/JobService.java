@@ -1,10 +1,12 @@
 package com.solar.management.service;
 
+import com.solar.management.dto.TravelDistanceReportDTO;
 import com.solar.management.entity.*;
 import com.solar.management.repository.*;
 import com.solar.management.security.AuthenticationHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -36,6 +38,8 @@ public class JobService {
     private final ParameterService parameterService;
     private final FileStorageService fileStorageService;
     private final AuthenticationHelper authHelper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LocationTrackingService locationTrackingService;
 
     public Job createJob(Job job) {
         // Generate unique job number
@@ -63,6 +67,8 @@ public class JobService {
             log.warn("Job {} created without work logs (missing times or technicians)", jobNumber);
         }
 
+        eventPublisher.publishEvent(new JobSitesChangedEvent());
+        publishAssignments(savedJob);
         return savedJob;
     }
     
@@ -169,6 +175,8 @@ public class JobService {
                  savedJob.getLocation() != null ? savedJob.getLocation().getId() : "null",
                  savedJob.getAssignedTechnicians().size());
 
+        eventPublisher.publishEvent(new JobSitesChangedEvent());
+        publishAssignments(savedJob);
         return savedJob;
     }
     
@@ -179,7 +187,9 @@ public class JobService {
         job.setStatus(newStatus);
 
         log.info("Job {} status changed from {} to {}", job.getJobNumber(), oldStatus, newStatus);
-        return jobRepository.save(job);
+        Job savedJob = jobRepository.save(job);
+        eventPublisher.publishEvent(new JobSitesChangedEvent());
+        return savedJob;
     }
 
     private void createWorkLogsForJob(Job job) {
@@ -260,7 +270,17 @@ public class JobService {
         log.info("Assigned {} units of stock {} to job {}", quantity, stockItemId, job.getJobNumber());
     }
     
+    /**
+     * Save a travel log for the current user, or for another user when the caller may access theirs
+     * The distance is filled from that user's tracked points, so the user is checked first
+     */
     public TravelLog logTravel(TravelLog travelLog) {
+        if (travelLog.getUser() == null || travelLog.getUser().getId() == null) {
+            travelLog.setUser(authHelper.getCurrentUser());
+        } else {
+            authHelper.validateUserAccess(travelLog.getUser().getId());
+        }
+
         // Calculate duration if arrival time is set
         if (travelLog.getArrivalTime() != null) {
             long minutes = java.time.Duration.between(
@@ -268,6 +288,9 @@ public class JobService {
                 travelLog.getArrivalTime()
             ).toMinutes();
             travelLog.setDuration((int) minutes);
+            if (travelLog.getDistance() == null) {
+                applyTrackedDistance(travelLog);
+            }
         }
         
         log.info("Travel log created for job {} by user {}", 
@@ -276,6 +299,41 @@ public class JobService {
         return travelLogRepository.save(travelLog);
     }
     
+    /**
+     * Fill distance and fuel cost of a completed travel log from the technician's tracked points
+     * Leaves both unset if nothing was tracked between departure and arrival
+     */
+    public void applyTrackedDistance(TravelLog travelLog) {
+        double kilometers = locationTrackingService.calculatePathDistance(
+                travelLog.getUser().getId(), travelLog.getDepartureTime(), travelLog.getArrivalTime());
+        if (kilometers <= 0) {
+            return;
+        }
+        BigDecimal distance = BigDecimal.valueOf(kilometers).setScale(2, RoundingMode.HALF_UP);
+        travelLog.setDistance(distance);
+        if (travelLog.getFuelCost() == null) {
+            travelLog.setFuelCost(distance.multiply(parameterService.getFuelCostPerKm()).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    /**
+     * Total travel distance and fuel cost for a user over a period, with access validation
+     */
+    public TravelDistanceReportDTO getTravelDistanceReportWithAuth(Long userId, LocalDateTime start, LocalDateTime end) {
+        authHelper.validateUserAccess(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        BigDecimal distance = travelLogRepository.calculateTotalDistanceForUser(user, start, end);
+        BigDecimal fuelCost = travelLogRepository.calculateTotalFuelCostForUser(user, start, end);
+        return TravelDistanceReportDTO.builder()
+                .userId(userId)
+                .start(start)
+                .end(end)
+                .totalDistance(distance != null ? distance : BigDecimal.ZERO)
+                .totalFuelCost(fuelCost != null ? fuelCost : BigDecimal.ZERO)
+                .build();
+    }
+
     public Job getJobById(Long id) {
         return jobRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Job not found with id: " + id));
@@ -313,8 +371,7 @@ public class JobService {
         if (authHelper.isAdminOrManager()) {
             return jobRepository.findAll();
         } else {
-            User currentUser = authHelper.getCurrentUser();
-            return jobRepository.findByAssignedTo(currentUser);
+            return jobRepository.findByAssignedTechnicianId(authHelper.getCurrentPrincipal().id());
         }
     }
 
@@ -325,8 +382,8 @@ public class JobService {
         if (authHelper.isAdminOrManager()) {
             return jobRepository.findByStatus(status);
         } else {
-            User currentUser = authHelper.getCurrentUser();
-            return jobRepository.findByAssignedToAndStatusIn(currentUser, List.of(status));
+            return jobRepository.findByAssignedTechnicianIdAndStatusIn(
+                    authHelper.getCurrentPrincipal().id(), List.of(status));
         }
     }
 
@@ -347,9 +404,8 @@ public class JobService {
         if (authHelper.isAdminOrManager()) {
             return jobRepository.findByClientNameContainingIgnoreCase(clientName, pageable);
         } else {
-            User currentUser = authHelper.getCurrentUser();
-            return jobRepository.findByClientNameContainingIgnoreCaseAndAssignedTo(
-                    clientName, currentUser, pageable);
+            return jobRepository.findByClientNameContainingIgnoreCaseAndAssignedTechnicianId(
+                    clientName, authHelper.getCurrentPrincipal().id(), pageable);
         }
     }
 
@@ -373,8 +429,15 @@ public class JobService {
         Job job = getJobById(id);
         log.info("Deleting job: {}", job.getJobNumber());
         jobRepository.delete(job);
+        eventPublisher.publishEvent(new JobSitesChangedEvent());
+        eventPublisher.publishEvent(new JobAssignmentsChangedEvent(id, new long[0]));
     }
     
+    private void publishAssignments(Job job) {
+        long[] technicianIds = job.getAssignedTechnicians().stream().mapToLong(User::getId).toArray();
+        eventPublisher.publishEvent(new JobAssignmentsChangedEvent(job.getId(), technicianIds));
+    }
+
     private String generateJobNumber() {
         String prefix = "JOB";
         String timestamp = String.valueOf(System.currentTimeMillis());
@@ -0,0 +1,8 @@
+package com.solar.management.service;
+
+/**
+ * Published when jobs, their locations or technician assignments change
+ * GeofenceIndex rebuilds after the publishing transaction commits
+ */
+public class JobSitesChangedEvent {
+}
@@ -0,0 +1,133 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.FleetPositionDTO;
+import com.solar.management.dto.LocationPointDTO;
+import com.solar.management.repository.LocationTrackingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory table of each user's latest location fix
+ * Updated by LocationWriteBuffer after every successful flush and rebuilt from the
+ * database at startup, so the fleet map never has to query location_tracking.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LatestPositionCache implements LocationFixListener {
+
+    private final LocationTrackingRepository locationTrackingRepository;
+
+    // Bounds the startup query to recent partitions; older positions are not useful on the fleet map
+    @Value("${app.location.fleet.lookback-days:30}")
+    private int lookbackDays;
+
+    private final ConcurrentMap<Long, LatestPosition> positions = new ConcurrentHashMap<>();
+
+    /**
+     * Load the newest recent fix per user; live updates that raced the load are kept if newer
+     * Ordered first so indexes seeded from this cache see the loaded positions
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuild() {
+        List<LocationPointDTO> latest = locationTrackingRepository.findLatestPositions(
+                LocalDateTime.now().minusDays(lookbackDays));
+        update(latest);
+        log.info("Latest position cache loaded with {} users", latest.size());
+    }
+
+    @Override
+    public void onLocationsPersisted(List<LocationPointDTO> points) {
+        update(points);
+    }
+
+    /**
+     * Record fixes, keeping only the newest per user
+     */
+    public void update(Collection<LocationPointDTO> points) {
+        for (LocationPointDTO point : points) {
+            LatestPosition candidate = LatestPosition.of(point);
+            positions.merge(point.getUserId(), candidate,
+                    (current, next) -> next.timestampMillis >= current.timestampMillis ? next : current);
+        }
+    }
+
+    public FleetPositionDTO get(Long userId) {
+        LatestPosition position = positions.get(userId);
+        return position == null ? null : position.toDto(userId);
+    }
+
+    public List<FleetPositionDTO> getAll() {
+        List<FleetPositionDTO> fleet = new ArrayList<>(positions.size());
+        positions.forEach((userId, position) -> fleet.add(position.toDto(userId)));
+        return fleet;
+    }
+
+    /**
+     * Compact immutable snapshot of a fix; missing optional values are stored as NaN
+     */
+    private static final class LatestPosition {
+        private final double latitude;
+        private final double longitude;
+        private final double accuracy;
+        private final double speed;
+        private final double heading;
+        private final long timestampMillis;
+
+        private LatestPosition(double latitude, double longitude, double accuracy,
+                               double speed, double heading, long timestampMillis) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.accuracy = accuracy;
+            this.speed = speed;
+            this.heading = heading;
+            this.timestampMillis = timestampMillis;
+        }
+
+        static LatestPosition of(LocationPointDTO point) {
+            return new LatestPosition(
+                    point.getLatitude(),
+                    point.getLongitude(),
+                    orNaN(point.getAccuracy()),
+                    orNaN(point.getSpeed()),
+                    orNaN(point.getHeading()),
+                    point.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+
+        FleetPositionDTO toDto(Long userId) {
+            return FleetPositionDTO.builder()
+                    .userId(userId)
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .accuracy(orNull(accuracy))
+                    .speed(orNull(speed))
+                    .heading(orNull(heading))
+                    .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneOffset.UTC))
+                    .build();
+        }
+
+        private static double orNaN(Double value) {
+            return value == null ? Double.NaN : value;
+        }
+
+        private static Double orNull(double value) {
+            return Double.isNaN(value) ? null : value;
+        }
+    }
+}
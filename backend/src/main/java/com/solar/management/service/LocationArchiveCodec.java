@@ -0,0 +1,185 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.TrackPointDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar binary encoding of one technician-day of location points
+ *
+ * Layout: magic, version, point count, then one length-prefixed column each for
+ * timestamps, latitude, longitude, accuracy, speed and heading.
+ * - Timestamps (epoch millis): first value, first delta, then delta-of-delta, as zigzag varints.
+ *   Regular ping intervals make almost every delta-of-delta zero, i.e. one byte.
+ * - Coordinates: fixed-point micro-degrees (about 0.1 m), first value then deltas, as zigzag varints.
+ * - Accuracy and speed: quantized to 0.1 units, heading rounded to whole degrees but otherwise
+ *   stored as recorded (not normalised to 0-359), as zigzag varints offset by one so that zero
+ *   encodes a missing value.
+ */
+public final class LocationArchiveCodec {
+
+    private static final int MAGIC = 0x534C5441; // "SLTA"
+    private static final byte VERSION = 1;
+    private static final double COORDINATE_SCALE = 1_000_000d;
+    private static final double TENTHS_SCALE = 10d;
+
+    private LocationArchiveCodec() {
+    }
+
+    /**
+     * @param points Points in ascending timestamp order
+     */
+    public static byte[] encode(List<TrackPointDTO> points) {
+        ByteArrayOutputStream timestamps = new ByteArrayOutputStream();
+        ByteArrayOutputStream latitudes = new ByteArrayOutputStream();
+        ByteArrayOutputStream longitudes = new ByteArrayOutputStream();
+        ByteArrayOutputStream accuracies = new ByteArrayOutputStream();
+        ByteArrayOutputStream speeds = new ByteArrayOutputStream();
+        ByteArrayOutputStream headings = new ByteArrayOutputStream();
+
+        long previousTime = 0;
+        long previousDelta = 0;
+        long previousLat = 0;
+        long previousLon = 0;
+        for (int i = 0; i < points.size(); i++) {
+            TrackPointDTO point = points.get(i);
+
+            long time = point.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+            if (i == 0) {
+                writeSigned(timestamps, time);
+            } else {
+                long delta = time - previousTime;
+                writeSigned(timestamps, i == 1 ? delta : delta - previousDelta);
+                previousDelta = delta;
+            }
+            previousTime = time;
+
+            long lat = Math.round(point.getLatitude() * COORDINATE_SCALE);
+            long lon = Math.round(point.getLongitude() * COORDINATE_SCALE);
+            writeSigned(latitudes, lat - previousLat);
+            writeSigned(longitudes, lon - previousLon);
+            previousLat = lat;
+            previousLon = lon;
+
+            writeOptional(accuracies, point.getAccuracy() == null ? null : Math.round(point.getAccuracy() * TENTHS_SCALE));
+            writeOptional(speeds, point.getSpeed() == null ? null : Math.round(point.getSpeed() * TENTHS_SCALE));
+            writeOptional(headings, point.getHeading() == null ? null : Math.round(point.getHeading()));
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(9 + 6 * 4 + timestamps.size() + latitudes.size() + longitudes.size()
+                + accuracies.size() + speeds.size() + headings.size());
+        out.putInt(MAGIC);
+        out.put(VERSION);
+        out.putInt(points.size());
+        for (ByteArrayOutputStream column : List.of(timestamps, latitudes, longitudes, accuracies, speeds, headings)) {
+            out.putInt(column.size());
+            out.put(column.toByteArray());
+        }
+        return out.array();
+    }
+
+    /**
+     * Decode a file previously produced by encode; the buffer may be memory-mapped
+     */
+    public static List<TrackPointDTO> decode(ByteBuffer in) {
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a location archive");
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported location archive version: " + version);
+        }
+        int count = in.getInt();
+
+        ByteBuffer timestamps = column(in);
+        ByteBuffer latitudes = column(in);
+        ByteBuffer longitudes = column(in);
+        ByteBuffer accuracies = column(in);
+        ByteBuffer speeds = column(in);
+        ByteBuffer headings = column(in);
+
+        List<TrackPointDTO> points = new ArrayList<>(count);
+        long time = 0;
+        long delta = 0;
+        long lat = 0;
+        long lon = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                time = readSigned(timestamps);
+            } else {
+                delta = i == 1 ? readSigned(timestamps) : delta + readSigned(timestamps);
+                time += delta;
+            }
+            lat += readSigned(latitudes);
+            lon += readSigned(longitudes);
+
+            Long accuracy = readOptional(accuracies);
+            Long speed = readOptional(speeds);
+            Long heading = readOptional(headings);
+
+            points.add(new TrackPointDTO(
+                    lat / COORDINATE_SCALE,
+                    lon / COORDINATE_SCALE,
+                    accuracy == null ? null : accuracy / TENTHS_SCALE,
+                    speed == null ? null : speed / TENTHS_SCALE,
+                    heading == null ? null : heading.doubleValue(),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC)));
+        }
+        return points;
+    }
+
+    private static ByteBuffer column(ByteBuffer in) {
+        int length = in.getInt();
+        ByteBuffer column = in.slice(in.position(), length);
+        in.position(in.position() + length);
+        return column;
+    }
+
+    private static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSigned(ByteBuffer in) {
+        long encoded = readVarint(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    private static void writeOptional(ByteArrayOutputStream out, Long value) {
+        writeVarint(out, value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+    }
+
+    private static Long readOptional(ByteBuffer in) {
+        long encoded = readVarint(in);
+        if (encoded == 0) {
+            return null;
+        }
+        long value = encoded - 1;
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,163 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.TrackPointDTO;
+import com.solar.management.repository.LocationTrackingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Long-term storage of closed days of location history outside Postgres
+ * Each technician-day is kept as one LocationArchiveCodec file under
+ * {archive-dir}/{userId}/{yyyy-MM-dd}.trk and read back by memory-mapping it.
+ * LocationRetentionService archives days before their raw rows are dropped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocationArchiveService {
+
+    private static final String FILE_EXTENSION = ".trk";
+
+    private final LocationTrackingRepository locationTrackingRepository;
+
+    @Value("${app.location.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.location.archive.dir:./archive/location}")
+    private String archiveDir;
+
+    /**
+     * Archive every technician-day with points in [from, to); both bounds should be at midnight
+     * A day that already has a file is merged with it, deduplicated on timestamp, so points that
+     * arrive late for an archived day are added without losing the rest of that day, and a rerun
+     * after a failure writes the same file again
+     * @return Number of technician-days written
+     */
+    public int archiveRange(LocalDateTime from, LocalDateTime to) {
+        if (!enabled) {
+            return 0;
+        }
+        Map<Long, List<LocalDate>> userDays = locationTrackingRepository.findUserDays(from, to);
+        int written = 0;
+        long bytes = 0;
+        for (Map.Entry<Long, List<LocalDate>> entry : userDays.entrySet()) {
+            for (LocalDate day : entry.getValue()) {
+                bytes += archiveDay(entry.getKey(), day);
+                written++;
+            }
+        }
+        if (written > 0) {
+            log.info("Archived {} technician-days of location history ({} KB) for {} to {}",
+                    written, bytes / 1024, from, to);
+        }
+        return written;
+    }
+
+    /**
+     * Archived points for a user within [start, end], oldest first
+     * Day files are decoded one at a time as the stream is consumed, so a long range never holds
+     * more than one day of decoded points
+     */
+    public Stream<TrackPointDTO> readRange(Long userId, LocalDateTime start, LocalDateTime end) {
+        if (!enabled || end.isBefore(start) || !Files.isDirectory(userDir(userId))) {
+            return Stream.empty();
+        }
+        return start.toLocalDate().datesUntil(end.toLocalDate().plusDays(1))
+                .map(day -> dayFile(userId, day))
+                .filter(Files::exists)
+                .flatMap(file -> readDay(file).stream())
+                .filter(point -> !point.getTimestamp().isBefore(start) && !point.getTimestamp().isAfter(end));
+    }
+
+    /**
+     * Newest archived point for a user, read from the most recent day file
+     */
+    public Optional<TrackPointDTO> findLatest(Long userId) {
+        Path dir = userDir(userId);
+        if (!enabled || !Files.isDirectory(dir)) {
+            return Optional.empty();
+        }
+        // yyyy-MM-dd file names sort in date order
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION))
+                    .max(Comparator.comparing(file -> file.getFileName().toString()))
+                    .map(this::readDay)
+                    .filter(points -> !points.isEmpty())
+                    .map(points -> points.get(points.size() - 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list location archive for user " + userId, e);
+        }
+    }
+
+    private long archiveDay(Long userId, LocalDate day) {
+        List<TrackPointDTO> rows = locationTrackingRepository.findTrackPointsInRange(
+                userId, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        Path file = dayFile(userId, day);
+        List<TrackPointDTO> points = Files.exists(file) ? merge(readDay(file), rows) : rows;
+        byte[] encoded = LocationArchiveCodec.encode(points);
+        try {
+            Files.createDirectories(file.getParent());
+            // Write then rename so readers never see a partial file
+            Path temp = Files.createTempFile(file.getParent(), day.toString(), ".tmp");
+            Files.write(temp, encoded);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive location history for user " + userId + " on " + day, e);
+        }
+        return encoded.length;
+    }
+
+    /**
+     * Archived points plus database rows in timestamp order; a row replaces an archived point
+     * with the same (millisecond) timestamp
+     */
+    private static List<TrackPointDTO> merge(List<TrackPointDTO> archived, List<TrackPointDTO> rows) {
+        TreeMap<LocalDateTime, TrackPointDTO> byTimestamp = new TreeMap<>();
+        for (TrackPointDTO point : archived) {
+            byTimestamp.put(point.getTimestamp().truncatedTo(ChronoUnit.MILLIS), point);
+        }
+        for (TrackPointDTO point : rows) {
+            byTimestamp.put(point.getTimestamp().truncatedTo(ChronoUnit.MILLIS), point);
+        }
+        return new ArrayList<>(byTimestamp.values());
+    }
+
+    private List<TrackPointDTO> readDay(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return LocationArchiveCodec.decode(mapped);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read location archive " + file, e);
+        }
+    }
+
+    private Path userDir(Long userId) {
+        return Paths.get(archiveDir, String.valueOf(userId));
+    }
+
+    private Path dayFile(Long userId, LocalDate day) {
+        return userDir(userId).resolve(day + FILE_EXTENSION);
+    }
+}
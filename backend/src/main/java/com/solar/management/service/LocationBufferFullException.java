@@ -0,0 +1,14 @@
+package com.solar.management.service;
+
+/**
+ * Thrown when the location write-behind buffer is full and cannot accept more points
+ * Mapped to 503 Service Unavailable so devices keep the points and retry later
+ */
+public class LocationBufferFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LocationBufferFullException(String message) {
+        super(message);
+    }
+}
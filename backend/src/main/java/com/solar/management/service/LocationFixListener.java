@@ -0,0 +1,17 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.LocationPointDTO;
+
+import java.util.List;
+
+/**
+ * Callback for location fixes that have just been persisted by LocationWriteBuffer
+ * Invoked on the flusher thread, so implementations must return quickly
+ */
+public interface LocationFixListener {
+
+    /**
+     * @param points Persisted points in ingest order; may contain several fixes per user
+     */
+    void onLocationsPersisted(List<LocationPointDTO> points);
+}
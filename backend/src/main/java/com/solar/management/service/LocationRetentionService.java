@@ -0,0 +1,124 @@
+package com.solar.management.service;
+
+import com.solar.management.repository.LocationTrackingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Partition maintenance and retention for location_tracking
+ * Keeps monthly partitions created ahead of time. Raw points older than the retention window
+ * are archived to files by LocationArchiveService and rolled into location_trip_summaries
+ * before their partitions are dropped.
+ * If the table is not partitioned (migration 005 not applied), expired rows are
+ * rolled up and deleted in batches instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocationRetentionService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final LocationTrackingRepository locationTrackingRepository;
+    private final LocationArchiveService locationArchiveService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.location.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.location.retention.raw-months:6}")
+    private int rawMonths;
+
+    @Value("${app.location.retention.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.location.retention.trip-gap-minutes:10}")
+    private int tripGapMinutes;
+
+    @Value("${app.location.retention.delete-batch-size:10000}")
+    private int deleteBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled && locationTrackingRepository.isPartitioned()) {
+            ensurePartitions(YearMonth.now());
+        }
+    }
+
+    @Scheduled(cron = "${app.location.retention.cron:0 30 2 * * *}")
+    public void applyRetention() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth currentMonth = YearMonth.now();
+        YearMonth oldestKept = currentMonth.minusMonths(rawMonths);
+        LocalDateTime cutoff = oldestKept.atDay(1).atStartOfDay();
+
+        if (locationTrackingRepository.isPartitioned()) {
+            ensurePartitions(currentMonth);
+            for (YearMonth month : locationTrackingRepository.findMonthlyPartitions()) {
+                if (!month.isBefore(oldestKept)) {
+                    break;
+                }
+                expirePartition(month);
+            }
+        }
+
+        // Unpartitioned table, or stray old rows in the default partition
+        try {
+            locationArchiveService.archiveRange(EPOCH, cutoff);
+        } catch (Exception e) {
+            log.error("Location archive failed, keeping raw points before {}: {}", cutoff, e.getMessage(), e);
+            return;
+        }
+        int trips = locationTrackingRepository.rollupTrips(EPOCH, cutoff, tripGapMinutes);
+        long deleted = 0;
+        int batch;
+        while ((batch = locationTrackingRepository.deleteOlderThan(cutoff, deleteBatchSize)) > 0) {
+            deleted += batch;
+        }
+        if (deleted > 0) {
+            log.info("Location retention: rolled up {} trips and deleted {} raw points before {}", trips, deleted, cutoff);
+        }
+    }
+
+    private void ensurePartitions(YearMonth currentMonth) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            try {
+                locationTrackingRepository.createMonthlyPartition(month);
+            } catch (Exception e) {
+                // Fails if the default partition already holds rows for this month
+                log.error("Could not create location_tracking partition for {}: {}", month, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Archive the month, then roll it up and drop it in a single transaction,
+     * so points are never removed without an archive file and a summary
+     */
+    private void expirePartition(YearMonth month) {
+        try {
+            locationArchiveService.archiveRange(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+            Integer trips = transactionTemplate.execute(status -> {
+                int inserted = locationTrackingRepository.rollupTrips(
+                        month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay(), tripGapMinutes);
+                locationTrackingRepository.dropMonthlyPartition(month);
+                return inserted;
+            });
+            log.info("Location retention: rolled {} into {} trip summaries and dropped its partition", month, trips);
+        } catch (Exception e) {
+            log.error("Location retention failed for {}: {}", month, e.getMessage(), e);
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.solar.management.service;
 
+import com.solar.management.dto.FleetPositionDTO;
+import com.solar.management.dto.LocationPointDTO;
+import com.solar.management.dto.TrackPointDTO;
 import com.solar.management.entity.LocationTracking;
+import com.solar.management.entity.LocationTripSummary;
 import com.solar.management.entity.User;
 import com.solar.management.repository.LocationTrackingRepository;
+import com.solar.management.repository.LocationTripSummaryRepository;
 import com.solar.management.repository.UserRepository;
 import com.solar.management.security.AuthenticationHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,26 +38,71 @@ import java.util.List;
 public class LocationTrackingService {
 
     private final LocationTrackingRepository locationTrackingRepository;
+    private final LocationTripSummaryRepository locationTripSummaryRepository;
     private final UserRepository userRepository;
     private final AuthenticationHelper authHelper;
+    private final LocationWriteBuffer locationWriteBuffer;
+    private final LocationArchiveService locationArchiveService;
+    private final LatestPositionCache latestPositionCache;
 
-    public LocationTracking recordLocation(LocationTracking locationTracking) {
-        log.info("Recording location for user: {} at ({}, {})", 
-                 locationTracking.getUser().getUsername(),
-                 locationTracking.getLatitude(),
-                 locationTracking.getLongitude());
-        
-        return locationTrackingRepository.save(locationTracking);
+    // Users recently verified to exist, with the time the check expires; ingest for them skips the existence query
+    private final ConcurrentMap<Long, Long> knownUsers = new ConcurrentHashMap<>();
+
+    @Value("${app.location.known-users.ttl-seconds:600}")
+    private long knownUserTtlSeconds;
+
+    @Value("${app.location.known-users.max-entries:10000}")
+    private int knownUserMaxEntries;
+
+    @Value("${app.location.history.default-days:7}")
+    private long historyDefaultDays;
+
+    @Value("${app.location.retention.raw-months:6}")
+    private long rawRetentionMonths;
+
+    @Value("${app.location.distance.max-accuracy-meters:50}")
+    private double distanceMaxAccuracyMeters;
+
+    @Value("${app.location.distance.min-step-meters:25}")
+    private double distanceMinStepMeters;
+
+    @Value("${app.location.distance.max-speed-mps:70}")
+    private double distanceMaxSpeedMps;
+
+    /**
+     * Enqueue a location fix for write-behind persistence
+     * @return false if the write buffer is full
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean recordLocation(LocationTracking locationTracking) {
+        if (locationTracking.getUser() == null || locationTracking.getUser().getId() == null) {
+            throw new RuntimeException("User not found");
+        }
+        LocationPointDTO point = LocationPointDTO.builder()
+                .userId(locationTracking.getUser().getId())
+                .latitude(locationTracking.getLatitude())
+                .longitude(locationTracking.getLongitude())
+                .accuracy(locationTracking.getAccuracy())
+                .altitude(locationTracking.getAltitude())
+                .speed(locationTracking.getSpeed())
+                .heading(locationTracking.getHeading())
+                .deviceId(locationTracking.getDeviceId())
+                .timestamp(locationTracking.getTimestamp() != null
+                        ? locationTracking.getTimestamp() : LocalDateTime.now())
+                .build();
+        return enqueue(point);
     }
-    
-    public LocationTracking recordLocationByUserId(Long userId, Double latitude, Double longitude,
-                                                   Double accuracy, Double altitude, Double speed,
-                                                   Double heading, String deviceId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        LocationTracking locationTracking = LocationTracking.builder()
-                .user(user)
+
+    /**
+     * Enqueue a location fix for a user; the HTTP thread never waits on a database commit
+     * @return false if the write buffer is full
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean recordLocationByUserId(Long userId, Double latitude, Double longitude,
+                                          Double accuracy, Double altitude, Double speed,
+                                          Double heading, String deviceId) {
+        LocationPointDTO point = LocationPointDTO.builder()
+                .userId(userId)
                 .latitude(latitude)
                 .longitude(longitude)
                 .accuracy(accuracy)
@@ -49,34 +112,225 @@ public class LocationTrackingService {
                 .deviceId(deviceId)
                 .timestamp(LocalDateTime.now())
                 .build();
-        
-        return recordLocation(locationTracking);
+        return enqueue(point);
     }
-    
-    public LocationTracking getLatestLocation(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return locationTrackingRepository.findLatestLocationForUser(user)
+
+    /**
+     * Record a batch of location points for one user, e.g. fixes buffered while a device was offline
+     * Points are deduplicated by (deviceId, timestamp) within the batch and against stored rows,
+     * then handed to the write-behind buffer. Points without a timestamp are skipped: buffered fixes
+     * must carry their capture time, and stamping them on arrival would collapse them into one row.
+     * @return Number of points accepted after validation and in-batch deduplication
+     * @throws LocationBufferFullException if the write buffer cannot take the batch
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int recordLocationBatch(Long userId, List<LocationPointDTO> points) {
+        ensureKnownUser(userId);
+
+        Map<String, LocationPointDTO> unique = new LinkedHashMap<>();
+        for (LocationPointDTO point : points) {
+            if (point.getTimestamp() == null || !isValidCoordinate(point.getLatitude(), point.getLongitude())) {
+                continue;
+            }
+            point.setUserId(userId);
+            unique.putIfAbsent(Objects.toString(point.getDeviceId(), "") + "|" + point.getTimestamp(), point);
+        }
+
+        List<LocationPointDTO> accepted = new ArrayList<>(unique.values());
+        if (!locationWriteBuffer.offerAll(accepted)) {
+            throw new LocationBufferFullException("Location buffer is full, retry later");
+        }
+
+        log.debug("Queued batch of {} location points ({} received) for user {}",
+                accepted.size(), points.size(), userId);
+        return accepted.size();
+    }
+
+    private boolean enqueue(LocationPointDTO point) {
+        if (!isValidCoordinate(point.getLatitude(), point.getLongitude())) {
+            throw new InvalidCoordinatesException("Invalid coordinates");
+        }
+        ensureKnownUser(point.getUserId());
+        log.debug("Queueing location for user: {} at ({}, {})",
+                point.getUserId(), point.getLatitude(), point.getLongitude());
+        return locationWriteBuffer.offer(point);
+    }
+
+    /**
+     * Verify a user exists, then remember it for a while so steady-state ingest does no user lookups
+     * Entries expire so deleted users are noticed; the set is reset if it grows past its bound
+     */
+    private void ensureKnownUser(Long userId) {
+        long now = System.nanoTime();
+        Long expiresAt = knownUsers.get(userId);
+        if (expiresAt != null && expiresAt - now > 0) {
+            return;
+        }
+        if (!userRepository.existsById(userId)) {
+            knownUsers.remove(userId);
+            throw new RuntimeException("User not found");
+        }
+        if (knownUsers.size() >= knownUserMaxEntries) {
+            knownUsers.clear();
+        }
+        knownUsers.put(userId, now + TimeUnit.SECONDS.toNanos(knownUserTtlSeconds));
+    }
+
+    private boolean isValidCoordinate(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * Latest position of a user, served from memory
+     * For users with no fix in the cache's lookback window, the database is read back to the raw
+     * retention period, then the newest archived day
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FleetPositionDTO getLatestLocation(Long userId) {
+        FleetPositionDTO cached = latestPositionCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+
+        Optional<TrackPointDTO> latest = locationTrackingRepository
+                .findLatestTrackPointSince(userId, LocalDateTime.now().minusMonths(rawRetentionMonths))
+                .or(() -> locationArchiveService.findLatest(userId));
+        return latest
+                .map(point -> FleetPositionDTO.builder()
+                        .userId(userId)
+                        .latitude(point.getLatitude())
+                        .longitude(point.getLongitude())
+                        .accuracy(point.getAccuracy())
+                        .speed(point.getSpeed())
+                        .heading(point.getHeading())
+                        .timestamp(point.getTimestamp())
+                        .build())
                 .orElse(null);
     }
     
+    /**
+     * Latest position of every user with a recorded fix, served from memory
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<FleetPositionDTO> getFleetPositions() {
+        return latestPositionCache.getAll();
+    }
+
+    /**
+     * Location history for the last default-days days, newest first, archived days included
+     */
     public List<LocationTracking> getUserLocationHistory(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return locationTrackingRepository.findByUserOrderByTimestampDesc(user);
+        LocalDateTime end = LocalDateTime.now();
+        return getUserLocationHistoryBetweenDates(userId, end.minusDays(historyDefaultDays), end);
     }
     
+    /**
+     * Location history between two times, newest first
+     * Days already moved to the file archive are read from there and merged with rows still in the database
+     */
     public List<LocationTracking> getUserLocationHistoryBetweenDates(Long userId, 
                                                                      LocalDateTime start, 
                                                                      LocalDateTime end) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        return locationTrackingRepository.findByUserAndTimestampBetween(user, start, end);
+        List<LocationTracking> recent = locationTrackingRepository.findByUserAndTimestampBetween(user, start, end);
+        List<TrackPointDTO> archived;
+        try (Stream<TrackPointDTO> points = locationArchiveService.readRange(userId, start, end)) {
+            archived = points.toList();
+        }
+        if (archived.isEmpty()) {
+            return recent;
+        }
+
+        LocalDateTime lastArchived = archived.get(archived.size() - 1).getTimestamp();
+        List<LocationTracking> history = new ArrayList<>(recent.size() + archived.size());
+        for (LocationTracking location : recent) {
+            if (location.getTimestamp().isAfter(lastArchived)) {
+                history.add(location);
+            }
+        }
+        for (int i = archived.size() - 1; i >= 0; i--) {
+            TrackPointDTO point = archived.get(i);
+            history.add(LocationTracking.builder()
+                    .user(user)
+                    .latitude(point.getLatitude())
+                    .longitude(point.getLongitude())
+                    .accuracy(point.getAccuracy())
+                    .speed(point.getSpeed())
+                    .heading(point.getHeading())
+                    .timestamp(point.getTimestamp())
+                    .build());
+        }
+        return history;
     }
     
+    /**
+     * Get a user's route reduced for drawing on a map, oldest point first
+     * Points are read from a database cursor and downsampled in the same pass
+     * @param start           Range start, or null together with end for the last default-days days
+     * @param toleranceMeters Douglas-Peucker tolerance in metres, or null
+     * @param bucketSeconds   Time-bucket width in seconds, or null
+     * @param maxPoints       Maximum number of points returned, or null
+     */
+    @Transactional(readOnly = true)
+    public List<TrackPointDTO> getSimplifiedRoute(Long userId, LocalDateTime start, LocalDateTime end,
+                                                  Double toleranceMeters, Integer bucketSeconds,
+                                                  Integer maxPoints) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        if (start == null || end == null) {
+            end = LocalDateTime.now();
+            start = end.minusDays(historyDefaultDays);
+        }
+
+        try (Stream<TrackPointDTO> points = trackPointsBetween(userId, start, end)) {
+            return TrajectorySimplifier.simplify(points, toleranceMeters, bucketSeconds, maxPoints);
+        }
+    }
+
+    /**
+     * Get trip summaries overlapping a time range; covers periods whose raw points have expired
+     */
+    @Transactional(readOnly = true)
+    public List<LocationTripSummary> getTripSummaries(Long userId, LocalDateTime start, LocalDateTime end) {
+        return locationTripSummaryRepository.findByUserIdOverlapping(userId, start, end);
+    }
+
+    /**
+     * Driven distance in km between two instants, summed in one pass over the user's points
+     * Fixes less accurate than max-accuracy-meters are skipped. Movement shorter than
+     * min-step-meters is GPS jitter and only counts once the technician has moved further,
+     * and steps implying more than max-speed-mps are discarded as outliers.
+     */
+    @Transactional(readOnly = true)
+    public double calculatePathDistance(Long userId, LocalDateTime start, LocalDateTime end) {
+        PathDistance path = new PathDistance();
+        try (Stream<TrackPointDTO> points = trackPointsBetween(userId, start, end)) {
+            points.forEach(path::accept);
+        }
+        return path.kilometers;
+    }
+
+    /**
+     * Archived points then database rows in [start, end], oldest first, read lazily from both
+     * Archived days come first; database rows not after the last archived point are skipped
+     */
+    private Stream<TrackPointDTO> trackPointsBetween(Long userId, LocalDateTime start, LocalDateTime end) {
+        AtomicReference<LocalDateTime> lastArchived = new AtomicReference<>();
+        Stream<TrackPointDTO> archived = locationArchiveService.readRange(userId, start, end)
+                .peek(p -> lastArchived.set(p.getTimestamp()));
+        Stream<TrackPointDTO> recent = locationTrackingRepository.streamTrackPointsBetween(userId, start, end)
+                .filter(p -> lastArchived.get() == null || p.getTimestamp().isAfter(lastArchived.get()));
+        return Stream.concat(archived, recent);
+    }
+
     public Double calculateDistance(Double lat1, Double lon1, Double lat2, Double lon2) {
         // Haversine formula to calculate distance between two coordinates
         final int R = 6371; // Radius of the earth in km
@@ -97,7 +351,8 @@ public class LocationTrackingService {
      * Get latest location with access validation
      * Technicians can only access their own location data
      */
-    public LocationTracking getLatestLocationWithAuth(Long userId) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FleetPositionDTO getLatestLocationWithAuth(Long userId) {
         authHelper.validateUserAccess(userId);
         return getLatestLocation(userId);
     }
@@ -119,11 +374,32 @@ public class LocationTrackingService {
         return getUserLocationHistoryBetweenDates(userId, start, end);
     }
 
+    /**
+     * Get a simplified route with access validation
+     */
+    @Transactional(readOnly = true)
+    public List<TrackPointDTO> getSimplifiedRouteWithAuth(Long userId, LocalDateTime start, LocalDateTime end,
+                                                          Double toleranceMeters, Integer bucketSeconds,
+                                                          Integer maxPoints) {
+        authHelper.validateUserAccess(userId);
+        return getSimplifiedRoute(userId, start, end, toleranceMeters, bucketSeconds, maxPoints);
+    }
+
+    /**
+     * Get trip summaries with access validation
+     */
+    @Transactional(readOnly = true)
+    public List<LocationTripSummary> getTripSummariesWithAuth(Long userId, LocalDateTime start, LocalDateTime end) {
+        authHelper.validateUserAccess(userId);
+        return getTripSummaries(userId, start, end);
+    }
+
     /**
      * Record location by user ID with access validation
      * Technicians can only record their own location
      */
-    public LocationTracking recordLocationByUserIdWithAuth(
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean recordLocationByUserIdWithAuth(
             Long userId, Double latitude, Double longitude,
             Double accuracy, Double altitude, Double speed,
             Double heading, String deviceId) {
@@ -131,4 +407,47 @@ public class LocationTrackingService {
         return recordLocationByUserId(userId, latitude, longitude,
                                       accuracy, altitude, speed, heading, deviceId);
     }
+
+    /**
+     * Record a batch of location points with access validation
+     * Technicians can only record their own location
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int recordLocationBatchWithAuth(Long userId, List<LocationPointDTO> points) {
+        authHelper.validateUserAccess(userId);
+        return recordLocationBatch(userId, points);
+    }
+
+    /**
+     * Running state for calculatePathDistance; the anchor is the last fix that counted
+     */
+    private final class PathDistance {
+        private TrackPointDTO anchor;
+        private double kilometers;
+
+        private void accept(TrackPointDTO point) {
+            if (point.getAccuracy() != null && point.getAccuracy() > distanceMaxAccuracyMeters) {
+                return;
+            }
+            if (anchor == null) {
+                anchor = point;
+                return;
+            }
+            // Points overlapping the archive, or out of order, are ignored
+            if (!point.getTimestamp().isAfter(anchor.getTimestamp())) {
+                return;
+            }
+            double stepKm = calculateDistance(anchor.getLatitude(), anchor.getLongitude(),
+                    point.getLatitude(), point.getLongitude());
+            if (stepKm * 1000 < distanceMinStepMeters) {
+                return;
+            }
+            double seconds = Duration.between(anchor.getTimestamp(), point.getTimestamp()).toMillis() / 1000d;
+            if (stepKm * 1000 / seconds > distanceMaxSpeedMps) {
+                return;
+            }
+            kilometers += stepKm;
+            anchor = point;
+        }
+    }
 }
@@ -0,0 +1,243 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.LocationPointDTO;
+import com.solar.management.repository.LocationTrackingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded write-behind buffer for location points
+ * HTTP handlers only enqueue; a single background flusher drains the ring buffer into
+ * the database every flush interval or as soon as a full batch is available.
+ * When the buffer is full, offers fail fast so callers can apply backpressure (HTTP 503).
+ * Persisted points are handed to every LocationFixListener bean.
+ * Remaining points are flushed synchronously on shutdown.
+ */
+@Component
+@Slf4j
+public class LocationWriteBuffer {
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final LocationTrackingRepository locationTrackingRepository;
+    private final List<LocationFixListener> listeners;
+    private final BlockingQueue<LocationPointDTO> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+
+    private final AtomicLong flushedPoints = new AtomicLong();
+    private final AtomicLong rejectedPoints = new AtomicLong();
+    private final AtomicLong droppedPoints = new AtomicLong();
+
+    // Serialises producers so a batch's capacity check and its offers can't interleave with other offers
+    private final Object offerLock = new Object();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LocationWriteBuffer(
+            LocationTrackingRepository locationTrackingRepository,
+            List<LocationFixListener> listeners,
+            @Value("${app.location.buffer.capacity:50000}") int capacity,
+            @Value("${app.location.buffer.max-batch-size:1000}") int maxBatchSize,
+            @Value("${app.location.buffer.flush-interval-ms:250}") long flushIntervalMs) {
+        this.locationTrackingRepository = locationTrackingRepository;
+        this.listeners = listeners;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "location-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stop the flusher and write everything still buffered before the datasource closes
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        if (flusher.isAlive()) {
+            // Still writing its last batch; draining now would run two flushers at once
+            log.error("Location flusher did not stop within 10s, {} buffered points were not flushed", queue.size());
+            return;
+        }
+
+        List<LocationPointDTO> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += maxBatchSize) {
+            flush(remaining.subList(from, Math.min(from + maxBatchSize, remaining.size())));
+        }
+        log.info("Location write-behind buffer stopped, flushed {} remaining points", remaining.size());
+    }
+
+    /**
+     * Enqueue a single point without blocking
+     * @return false if the buffer is full
+     */
+    public boolean offer(LocationPointDTO point) {
+        boolean accepted;
+        synchronized (offerLock) {
+            accepted = queue.offer(point);
+        }
+        if (!accepted) {
+            rejectedPoints.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * Enqueue a batch of points without blocking, all or nothing
+     * Only the flusher removes points, and it can only free capacity, so once the check
+     * passes under the producer lock every offer succeeds.
+     * @return false if the buffer cannot take the whole batch; nothing is enqueued then
+     */
+    public boolean offerAll(List<LocationPointDTO> points) {
+        synchronized (offerLock) {
+            if (queue.remainingCapacity() < points.size()) {
+                rejectedPoints.addAndGet(points.size());
+                return false;
+            }
+            for (LocationPointDTO point : points) {
+                queue.offer(point);
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long getFlushedPoints() {
+        return flushedPoints.get();
+    }
+
+    public long getRejectedPoints() {
+        return rejectedPoints.get();
+    }
+
+    public long getDroppedPoints() {
+        return droppedPoints.get();
+    }
+
+    private void runFlusher() {
+        List<LocationPointDTO> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                LocationPointDTO head = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (head == null) {
+                    continue;
+                }
+                batch.add(head);
+
+                // Keep collecting until the batch is full or the flush interval has elapsed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    LocationPointDTO next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Shutdown: points already taken from the queue are flushed below
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Unexpected error in location flusher: {}", e.getMessage(), e);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<LocationPointDTO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                locationTrackingRepository.batchInsert(batch);
+                onFlushed(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // A bad row (e.g. a deleted user) fails the whole batch; bisect to isolate it
+                isolateInvalidPoints(batch, e);
+                return;
+            } catch (Exception e) {
+                log.warn("Location flush of {} points failed (attempt {}/{}): {}",
+                        batch.size(), attempt, MAX_FLUSH_ATTEMPTS, e.getMessage());
+                if (attempt < MAX_FLUSH_ATTEMPTS) {
+                    try {
+                        Thread.sleep(100L * attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+        droppedPoints.addAndGet(batch.size());
+        log.error("Dropped {} location points after {} failed flush attempts", batch.size(), MAX_FLUSH_ATTEMPTS);
+    }
+
+    private void onFlushed(List<LocationPointDTO> points) {
+        flushedPoints.addAndGet(points.size());
+        for (LocationFixListener listener : listeners) {
+            try {
+                listener.onLocationsPersisted(points);
+            } catch (Exception e) {
+                log.error("Location fix listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void isolateInvalidPoints(List<LocationPointDTO> batch, DataIntegrityViolationException cause) {
+        if (batch.size() == 1) {
+            droppedPoints.incrementAndGet();
+            log.warn("Dropped invalid location point for user {}: {}",
+                    batch.get(0).getUserId(), cause.getMostSpecificCause().getMessage());
+            return;
+        }
+        int mid = batch.size() / 2;
+        for (List<LocationPointDTO> half : List.of(batch.subList(0, mid), batch.subList(mid, batch.size()))) {
+            try {
+                locationTrackingRepository.batchInsert(half);
+                onFlushed(half);
+            } catch (DataIntegrityViolationException e) {
+                isolateInvalidPoints(half, e);
+            } catch (Exception e) {
+                droppedPoints.addAndGet(half.size());
+                log.error("Dropped {} location points: {}", half.size(), e.getMessage());
+            }
+        }
+    }
+}
@@ -62,6 +62,17 @@ public class ParameterService {
         }
     }
 
+    // Helper method to get fuel cost per kilometre used for travel logs
+    public BigDecimal getFuelCostPerKm() {
+        try {
+            Parameter parameter = getParameterByKey("FUEL_COST_PER_KM");
+            return parameter.getValueAsDecimal();
+        } catch (Exception e) {
+            log.warn("FUEL_COST_PER_KM parameter not found, using default: 0.25");
+            return new BigDecimal("0.25");
+        }
+    }
+
     // Helper methods for company information
     public String getCompanyName() {
         try {
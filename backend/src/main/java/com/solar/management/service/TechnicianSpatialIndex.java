@@ -0,0 +1,177 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.FleetPositionDTO;
+import com.solar.management.dto.LocationPointDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory k-nearest-neighbour index over users' current positions
+ * Users are bucketed into a uniform grid of cells. A query scans rings of cells outwards from
+ * the query point and stops once the next ring cannot hold anything closer than the k-th
+ * match found so far, so only the neighbourhood is visited regardless of fleet size.
+ * Loaded from LatestPositionCache at startup and moved between cells after each ingest flush.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TechnicianSpatialIndex implements LocationFixListener {
+
+    private static final double METERS_PER_DEGREE = 111_320d;
+    private static final double EARTH_RADIUS_METERS = 6_371_000d;
+
+    private final LatestPositionCache latestPositionCache;
+
+    @Value("${app.dispatch.cell-size-degrees:0.05}")
+    private double cellSizeDegrees;
+
+    @Value("${app.dispatch.max-search-km:300}")
+    private double maxSearchKm;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Runs after LatestPositionCache has loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStartup() {
+        List<FleetPositionDTO> fleet = latestPositionCache.getAll();
+        for (FleetPositionDTO position : fleet) {
+            put(position.getUserId(), position.getLatitude(), position.getLongitude(),
+                    position.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        log.info("Technician spatial index loaded with {} positions", fleet.size());
+    }
+
+    @Override
+    public void onLocationsPersisted(List<LocationPointDTO> points) {
+        for (LocationPointDTO point : points) {
+            put(point.getUserId(), point.getLatitude(), point.getLongitude(),
+                    point.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    /**
+     * Up to k users nearest to a point, closest first
+     * @param filter         Only users accepted by the filter are returned
+     * @param minTimestamp   Positions older than this (epoch millis, UTC) are skipped
+     */
+    public List<Neighbour> nearest(double latitude, double longitude, int k, LongPredicate filter, long minTimestamp) {
+        List<Neighbour> result = new ArrayList<>();
+        if (k <= 0 || entries.isEmpty()) {
+            return result;
+        }
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbour::distanceMeters).reversed());
+        long centreRow = cellIndex(latitude);
+        long centreCol = cellIndex(longitude);
+        double ringMeters = cellSizeDegrees * METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        int maxRing = (int) Math.ceil(maxSearchKm * 1000 / ringMeters) + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Anything in this ring is at least (ring - 1) whole cells away
+            double ringMinMeters = Math.max(0, ring - 1) * ringMeters;
+            if (best.size() == k && ringMinMeters > best.peek().distanceMeters()) {
+                break;
+            }
+            for (long row = centreRow - ring; row <= centreRow + ring; row++) {
+                boolean edgeRow = row == centreRow - ring || row == centreRow + ring;
+                long step = edgeRow || ring == 0 ? 1 : 2L * ring;
+                for (long col = centreCol - ring; col <= centreCol + ring; col += step) {
+                    Set<Long> members = cells.get(cellKey(row, col));
+                    if (members == null) {
+                        continue;
+                    }
+                    for (Long userId : members) {
+                        Entry entry = entries.get(userId);
+                        if (entry == null || entry.timestampMillis < minTimestamp || !filter.test(userId)) {
+                            continue;
+                        }
+                        double distance = haversineMeters(latitude, longitude, entry.latitude, entry.longitude);
+                        if (distance > maxSearchKm * 1000) {
+                            continue;
+                        }
+                        if (best.size() < k) {
+                            best.add(new Neighbour(userId, entry.latitude, entry.longitude, entry.timestampMillis, distance));
+                        } else if (distance < best.peek().distanceMeters()) {
+                            best.poll();
+                            best.add(new Neighbour(userId, entry.latitude, entry.longitude, entry.timestampMillis, distance));
+                        }
+                    }
+                }
+            }
+        }
+        result.addAll(best);
+        result.sort(Comparator.comparingDouble(Neighbour::distanceMeters));
+        return result;
+    }
+
+    /**
+     * Writers are the ingest flusher and startup load; synchronized so a user is in exactly one cell
+     */
+    private synchronized void put(long userId, double latitude, double longitude, long timestampMillis) {
+        Entry current = entries.get(userId);
+        if (current != null && current.timestampMillis > timestampMillis) {
+            return;
+        }
+        long cell = cellKey(cellIndex(latitude), cellIndex(longitude));
+        entries.put(userId, new Entry(latitude, longitude, timestampMillis, cell));
+        if (current != null && current.cell == cell) {
+            return;
+        }
+        cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(userId);
+        if (current != null) {
+            Set<Long> previous = cells.get(current.cell);
+            if (previous != null) {
+                previous.remove(userId);
+                if (previous.isEmpty()) {
+                    cells.remove(current.cell, previous);
+                }
+            }
+        }
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    private static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private record Entry(double latitude, double longitude, long timestampMillis, long cell) {
+    }
+
+    /**
+     * A user's indexed position and its straight-line distance from the query point
+     */
+    public record Neighbour(long userId, double latitude, double longitude, long timestampMillis,
+                            double distanceMeters) {
+    }
+}
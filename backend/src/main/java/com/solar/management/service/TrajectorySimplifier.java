@@ -0,0 +1,185 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.TrackPointDTO;
+
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reduces a time-ordered route to the points needed to draw it
+ * Time-bucket downsampling is applied while the cursor is read, keeping at most
+ * MAX_WORKING_POINTS in memory however long the history is. Douglas-Peucker simplification
+ * then runs on that reduced list, and a max-points cap is enforced by raising the tolerance.
+ */
+public final class TrajectorySimplifier {
+
+    static final int MAX_WORKING_POINTS = 20_000;
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000d;
+    private static final double MIN_CAP_TOLERANCE_METERS = 1d;
+    private static final int MAX_CAP_ITERATIONS = 32;
+
+    private TrajectorySimplifier() {
+    }
+
+    /**
+     * @param points          Points in ascending timestamp order
+     * @param toleranceMeters Douglas-Peucker tolerance, or null to skip simplification
+     * @param bucketSeconds   Keep the first point of each bucket of this many seconds, or null to keep all
+     *                        (up to the working bound)
+     * @param maxPoints       Upper bound on returned points (at least 2), or null for no cap
+     */
+    public static List<TrackPointDTO> simplify(Stream<TrackPointDTO> points, Double toleranceMeters,
+                                               Integer bucketSeconds, Integer maxPoints) {
+        List<TrackPointDTO> track = downsample(points.iterator(), bucketSeconds != null ? bucketSeconds : 0);
+
+        double tolerance = toleranceMeters != null ? toleranceMeters : 0d;
+        List<TrackPointDTO> result = tolerance > 0 ? douglasPeucker(track, tolerance) : track;
+
+        if (maxPoints != null) {
+            for (int i = 0; result.size() > maxPoints && i < MAX_CAP_ITERATIONS; i++) {
+                tolerance = Math.max(tolerance * 2, MIN_CAP_TOLERANCE_METERS);
+                result = douglasPeucker(track, tolerance);
+            }
+            if (result.size() > maxPoints) {
+                result = evenlySpaced(result, maxPoints);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keep the first point of every time bucket plus the final point, in a single pass
+     * A bucket of 0 keeps every point. Whenever MAX_WORKING_POINTS are held, the bucket width is
+     * doubled and the kept points thinned to match, until at most half the bound remains.
+     */
+    private static List<TrackPointDTO> downsample(Iterator<TrackPointDTO> points, long bucketSeconds) {
+        List<TrackPointDTO> kept = new ArrayList<>();
+        long width = bucketSeconds;
+        long currentBucket = Long.MIN_VALUE;
+        TrackPointDTO last = null;
+        while (points.hasNext()) {
+            TrackPointDTO point = points.next();
+            last = point;
+            if (width > 0) {
+                long bucket = bucketOf(point, width);
+                if (bucket == currentBucket) {
+                    continue;
+                }
+                currentBucket = bucket;
+            }
+            kept.add(point);
+            if (kept.size() >= MAX_WORKING_POINTS) {
+                while (kept.size() > MAX_WORKING_POINTS / 2) {
+                    width = width > 0 ? width * 2 : 1;
+                    kept = thin(kept, width);
+                }
+                currentBucket = bucketOf(kept.get(kept.size() - 1), width);
+            }
+        }
+        if (last != null && kept.get(kept.size() - 1) != last) {
+            kept.add(last);
+        }
+        return kept;
+    }
+
+    /**
+     * Keep the first point of every bucket of the given width
+     */
+    private static List<TrackPointDTO> thin(List<TrackPointDTO> points, long width) {
+        List<TrackPointDTO> thinned = new ArrayList<>();
+        long currentBucket = Long.MIN_VALUE;
+        for (TrackPointDTO point : points) {
+            long bucket = bucketOf(point, width);
+            if (bucket != currentBucket) {
+                thinned.add(point);
+                currentBucket = bucket;
+            }
+        }
+        return thinned;
+    }
+
+    private static long bucketOf(TrackPointDTO point, long width) {
+        return Math.floorDiv(point.getTimestamp().toEpochSecond(ZoneOffset.UTC), width);
+    }
+
+    /**
+     * Last resort for the cap: evenly spaced points including both endpoints
+     */
+    private static List<TrackPointDTO> evenlySpaced(List<TrackPointDTO> track, int maxPoints) {
+        int count = Math.max(2, maxPoints);
+        double step = (track.size() - 1) / (double) (count - 1);
+        List<TrackPointDTO> sampled = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sampled.add(track.get((int) Math.round(i * step)));
+        }
+        return sampled;
+    }
+
+    /**
+     * Iterative Douglas-Peucker; keeps both endpoints and every point farther than tolerance from its chord
+     */
+    private static List<TrackPointDTO> douglasPeucker(List<TrackPointDTO> track, double toleranceMeters) {
+        int n = track.size();
+        if (n <= 2) {
+            return track;
+        }
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[]{0, n - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int first = range[0];
+            int last = range[1];
+            double maxDistance = 0;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = perpendicularDistance(track.get(i), track.get(first), track.get(last));
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0 && maxDistance > toleranceMeters) {
+                keep[farthest] = true;
+                ranges.push(new int[]{first, farthest});
+                ranges.push(new int[]{farthest, last});
+            }
+        }
+
+        List<TrackPointDTO> simplified = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                simplified.add(track.get(i));
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Distance in metres from p to segment a-b, using an equirectangular projection around a
+     * (accurate to well under a metre over the few kilometres a route segment spans)
+     */
+    private static double perpendicularDistance(TrackPointDTO p, TrackPointDTO a, TrackPointDTO b) {
+        double cosLat = Math.cos(Math.toRadians(a.getLatitude()));
+        double bx = Math.toRadians(b.getLongitude() - a.getLongitude()) * cosLat * EARTH_RADIUS_METERS;
+        double by = Math.toRadians(b.getLatitude() - a.getLatitude()) * EARTH_RADIUS_METERS;
+        double px = Math.toRadians(p.getLongitude() - a.getLongitude()) * cosLat * EARTH_RADIUS_METERS;
+        double py = Math.toRadians(p.getLatitude() - a.getLatitude()) * EARTH_RADIUS_METERS;
+
+        double lengthSquared = bx * bx + by * by;
+        if (lengthSquared == 0) {
+            return Math.hypot(px, py);
+        }
+        double t = Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared));
+        return Math.hypot(px - t * bx, py - t * by);
+    }
+}
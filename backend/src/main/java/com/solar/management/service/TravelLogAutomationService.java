@@ -0,0 +1,134 @@
+package com.solar.management.service;
+
+import com.solar.management.entity.Job;
+import com.solar.management.entity.TravelLog;
+import com.solar.management.repository.JobRepository;
+import com.solar.management.repository.TravelLogRepository;
+import com.solar.management.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates and closes TravelLogs from geofence events
+ * On departure from a job site, a TravelLog is opened towards the technician's next scheduled job.
+ * On arrival at a job site, the open TravelLog for that job is closed with arrival time and duration,
+ * or a complete one is created from the last departure if travel went to a different job.
+ * Closed logs get their distance and fuel cost from the technician's tracked points.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class TravelLogAutomationService {
+
+    private static final String AUTO_NOTE = "Recorded automatically from geofence";
+
+    private final TravelLogRepository travelLogRepository;
+    private final JobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final JobService jobService;
+
+    @Value("${app.geofence.max-travel-hours:12}")
+    private long maxTravelHours;
+
+    // Last departure per technician, used when the destination wasn't known at departure time
+    private final Map<Long, GeofenceEvent> lastDepartures = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onGeofenceEvent(GeofenceEvent event) {
+        if (event.getType() == GeofenceEvent.Type.DEPART) {
+            handleDeparture(event);
+        } else {
+            handleArrival(event);
+        }
+    }
+
+    private void handleDeparture(GeofenceEvent event) {
+        lastDepartures.put(event.getUserId(), event);
+
+        Optional<Job> nextJob = jobRepository.findNextScheduledJobForTechnician(
+                event.getUserId(), event.getJobId(),
+                event.getTimestamp().minusHours(2), event.getTimestamp().toLocalDate().plusDays(1).atStartOfDay());
+        if (nextJob.isEmpty() || nextJob.get().getLocation() == null) {
+            return;
+        }
+        Job job = nextJob.get();
+        if (travelLogRepository.findOpenTravelLog(event.getUserId(), job.getId(), since(event)).isPresent()) {
+            return;
+        }
+
+        TravelLog travelLog = TravelLog.builder()
+                .job(job)
+                .user(userRepository.getReferenceById(event.getUserId()))
+                .startLatitude(event.getLatitude())
+                .startLongitude(event.getLongitude())
+                .endLatitude(job.getLocation().getLatitude())
+                .endLongitude(job.getLocation().getLongitude())
+                .endAddress(job.getLocation().getAddress())
+                .departureTime(event.getTimestamp())
+                .notes(AUTO_NOTE)
+                .build();
+        travelLogRepository.save(travelLog);
+        log.info("Opened travel log for user {} towards job {}", event.getUserId(), job.getJobNumber());
+    }
+
+    private void handleArrival(GeofenceEvent event) {
+        GeofenceEvent departure = lastDepartures.remove(event.getUserId());
+
+        Optional<TravelLog> open = travelLogRepository.findOpenTravelLog(event.getUserId(), event.getJobId(), since(event));
+        if (open.isPresent()) {
+            TravelLog travelLog = open.get();
+            travelLog.setArrivalTime(event.getTimestamp());
+            travelLog.setEndLatitude(event.getLatitude());
+            travelLog.setEndLongitude(event.getLongitude());
+            travelLog.setDuration(minutesBetween(travelLog.getDepartureTime(), event.getTimestamp()));
+            jobService.applyTrackedDistance(travelLog);
+            log.info("Closed travel log {} for user {} on arrival at job {}",
+                    travelLog.getId(), event.getUserId(), event.getJobId());
+            return;
+        }
+
+        if (departure == null || departure.getJobId().equals(event.getJobId())
+                || departure.getTimestamp().isBefore(since(event))) {
+            return;
+        }
+        Job job = jobRepository.findById(event.getJobId()).orElse(null);
+        if (job == null) {
+            return;
+        }
+        TravelLog travelLog = TravelLog.builder()
+                .job(job)
+                .user(userRepository.getReferenceById(event.getUserId()))
+                .startLatitude(departure.getLatitude())
+                .startLongitude(departure.getLongitude())
+                .endLatitude(event.getLatitude())
+                .endLongitude(event.getLongitude())
+                .endAddress(job.getLocation() != null ? job.getLocation().getAddress() : null)
+                .departureTime(departure.getTimestamp())
+                .arrivalTime(event.getTimestamp())
+                .duration(minutesBetween(departure.getTimestamp(), event.getTimestamp()))
+                .notes(AUTO_NOTE)
+                .build();
+        jobService.applyTrackedDistance(travelLog);
+        travelLogRepository.save(travelLog);
+        log.info("Recorded travel log for user {} arriving at job {}", event.getUserId(), job.getJobNumber());
+    }
+
+    private LocalDateTime since(GeofenceEvent event) {
+        return event.getTimestamp().minusHours(maxTravelHours);
+    }
+
+    private int minutesBetween(LocalDateTime from, LocalDateTime to) {
+        return (int) Duration.between(from, to).toMinutes();
+    }
+}
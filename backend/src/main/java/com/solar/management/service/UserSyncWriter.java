@@ -0,0 +1,141 @@
+package com.solar.management.service;
+
+import com.solar.management.entity.User;
+import com.solar.management.repository.UserRepository;
+import com.solar.management.security.PrincipalCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind queue for Keycloak profile syncs
+ * Request threads only enqueue; updates for the same keycloakId coalesce so the latest claims
+ * win, and the scheduled flusher writes them in batches in one transaction. If a batch fails,
+ * its updates are retried one by one so a single bad row cannot block the rest.
+ * Remaining updates are flushed on shutdown.
+ */
+@Component
+@Slf4j
+public class UserSyncWriter {
+
+    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+
+    private final ConcurrentMap<String, ProfileUpdate> pending = new ConcurrentHashMap<>();
+
+    public UserSyncWriter(
+            UserRepository userRepository,
+            PrincipalCache principalCache,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.user-sync.max-batch-size:200}") int maxBatchSize) {
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Queue a profile update, replacing any update still pending for the same user
+     */
+    public void enqueue(ProfileUpdate update) {
+        pending.put(update.keycloakId(), update);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-sync.flush-ms:2000}")
+    public void flush() {
+        List<ProfileUpdate> batch = drain();
+        while (!batch.isEmpty()) {
+            write(batch);
+            if (batch.size() < maxBatchSize) {
+                return;
+            }
+            batch = drain();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private List<ProfileUpdate> drain() {
+        List<ProfileUpdate> batch = new ArrayList<>();
+        Iterator<String> keys = pending.keySet().iterator();
+        while (keys.hasNext() && batch.size() < maxBatchSize) {
+            ProfileUpdate update = pending.remove(keys.next());
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+        return batch;
+    }
+
+    private void write(List<ProfileUpdate> batch) {
+        try {
+            evict(transactionTemplate.execute(status -> apply(batch)));
+            return;
+        } catch (Exception e) {
+            log.warn("Batched user sync of {} users failed, retrying individually: {}", batch.size(), e.getMessage());
+        }
+        for (ProfileUpdate update : batch) {
+            try {
+                evict(transactionTemplate.execute(status -> apply(List.of(update))));
+            } catch (Exception e) {
+                log.error("Failed to sync user {} from Keycloak: {}", update.keycloakId(), e.getMessage());
+            }
+        }
+    }
+
+    private List<User> apply(List<ProfileUpdate> batch) {
+        Map<String, ProfileUpdate> byKeycloakId = batch.stream()
+                .collect(Collectors.toMap(ProfileUpdate::keycloakId, Function.identity()));
+        List<User> users = userRepository.findByKeycloakIdIn(byKeycloakId.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        for (User user : users) {
+            ProfileUpdate update = byKeycloakId.get(user.getKeycloakId());
+            // Update fields from Keycloak (always take Keycloak as source of truth)
+            user.setEmail(update.email());
+            user.setFirstName(update.firstName());
+            user.setLastName(update.lastName());
+            user.setRole(update.role());
+            user.setUsername(update.username());
+            user.setLastKeycloakSync(now);
+            // Preserve database-managed fields: phoneNumber, abn, address, account, jobs, etc.
+        }
+        List<User> saved = userRepository.saveAll(users);
+        log.debug("Synced {} users from Keycloak", saved.size());
+        return saved;
+    }
+
+    private void evict(List<User> users) {
+        for (User user : users) {
+            principalCache.evictUser(user.getId());
+        }
+    }
+
+    /**
+     * Profile fields taken from a user's Keycloak token
+     */
+    public record ProfileUpdate(String keycloakId, String username, String email, String firstName,
+                                String lastName, User.UserRole role) {
+    }
+}
@@ -39,8 +39,7 @@ public class WorkLogService {
         if (authHelper.isAdminOrManager()) {
             return workLogRepository.findAll();
         } else {
-            User currentUser = authHelper.getCurrentUser();
-            return workLogRepository.findByUser(currentUser);
+            return workLogRepository.findByUserId(authHelper.getCurrentPrincipal().id());
         }
     }
 
@@ -140,7 +139,7 @@ public class WorkLogService {
             workLog.setWorkType(workLogDetails.getWorkType());
         }
 
-        log.info("Updated work log {} by user {}", id, authHelper.getCurrentUser().getUsername());
+        log.info("Updated work log {} by user {}", id, authHelper.getCurrentPrincipal().username());
         return workLogRepository.save(workLog);
     }
 }
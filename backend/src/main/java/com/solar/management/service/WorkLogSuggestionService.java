@@ -0,0 +1,173 @@
+package com.solar.management.service;
+
+import com.solar.management.entity.WorkLog;
+import com.solar.management.entity.WorkLogSuggestion;
+import com.solar.management.entity.WorkLogSuggestion.SuggestionStatus;
+import com.solar.management.repository.WorkLogRepository;
+import com.solar.management.repository.WorkLogSuggestionRepository;
+import com.solar.management.security.AuthenticationHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Work log time corrections proposed from on-site dwell time
+ * Each dwell interval reported by DwellDetector is merged with earlier intervals for the same
+ * work log, so a day with breaks off site yields first arrival to last departure. A suggestion
+ * is only raised when it differs from the logged times by more than the tolerance, and is
+ * applied to the work log only after a manager accepts it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class WorkLogSuggestionService {
+
+    private final WorkLogSuggestionRepository suggestionRepository;
+    private final WorkLogRepository workLogRepository;
+    private final AuthenticationHelper authHelper;
+
+    @Value("${app.dwell.tolerance-minutes:15}")
+    private long toleranceMinutes;
+
+    @Value("${app.dwell.round-minutes:5}")
+    private int roundMinutes;
+
+    /**
+     * Record time a technician spent on a job site and propose corrected work log times
+     */
+    public void recordDwell(Long userId, Long jobId, LocalDateTime arrival, LocalDateTime departure) {
+        LocalDate workDate = arrival.toLocalDate();
+        List<WorkLog> workLogs = workLogRepository.findByUserJobAndDate(userId, jobId, workDate);
+        if (workLogs.isEmpty()) {
+            return;
+        }
+        WorkLog workLog = workLogs.get(0);
+        if (Boolean.TRUE.equals(workLog.getInvoiced())) {
+            return;
+        }
+
+        Optional<WorkLogSuggestion> latest = suggestionRepository.findFirstByWorkLogIdOrderByCreatedAtDesc(workLog.getId());
+        if (latest.isPresent()) {
+            if (latest.get().getFirstArrival().isBefore(arrival)) {
+                arrival = latest.get().getFirstArrival();
+            }
+            if (latest.get().getLastDeparture().isAfter(departure)) {
+                departure = latest.get().getLastDeparture();
+            }
+        }
+        LocalTime suggestedStart = round(arrival.toLocalTime());
+        LocalTime suggestedEnd = departure.toLocalDate().isAfter(workDate)
+                ? LocalTime.of(23, 59) : round(departure.toLocalTime());
+        if (!suggestedEnd.isAfter(suggestedStart)) {
+            return;
+        }
+
+        if (latest.isPresent() && latest.get().getStatus() == SuggestionStatus.PENDING) {
+            WorkLogSuggestion suggestion = latest.get();
+            suggestion.setFirstArrival(arrival);
+            suggestion.setLastDeparture(departure);
+            suggestion.setSuggestedStartTime(suggestedStart);
+            suggestion.setSuggestedEndTime(suggestedEnd);
+            return;
+        }
+        if (latest.isPresent() && latest.get().getStatus() == SuggestionStatus.REJECTED
+                && suggestedStart.equals(latest.get().getSuggestedStartTime())
+                && suggestedEnd.equals(latest.get().getSuggestedEndTime())) {
+            return;
+        }
+        if (withinTolerance(workLog.getStartTime(), suggestedStart) && withinTolerance(workLog.getEndTime(), suggestedEnd)) {
+            return;
+        }
+
+        WorkLogSuggestion suggestion = WorkLogSuggestion.builder()
+                .workLog(workLog)
+                .userId(userId)
+                .jobId(jobId)
+                .workDate(workDate)
+                .currentStartTime(workLog.getStartTime())
+                .currentEndTime(workLog.getEndTime())
+                .suggestedStartTime(suggestedStart)
+                .suggestedEndTime(suggestedEnd)
+                .firstArrival(arrival)
+                .lastDeparture(departure)
+                .status(SuggestionStatus.PENDING)
+                .build();
+        suggestionRepository.save(suggestion);
+        log.info("Suggested work log {} times {}-{} (logged {}-{}) from site dwell",
+                workLog.getId(), suggestedStart, suggestedEnd, workLog.getStartTime(), workLog.getEndTime());
+    }
+
+    public List<WorkLogSuggestion> getPendingSuggestions() {
+        return suggestionRepository.findByStatusOrderByWorkDateAsc(SuggestionStatus.PENDING);
+    }
+
+    /**
+     * Get pending suggestions for a user with access validation
+     */
+    public List<WorkLogSuggestion> getPendingSuggestionsForUserWithAuth(Long userId) {
+        authHelper.validateUserAccess(userId);
+        return suggestionRepository.findByUserIdAndStatusOrderByWorkDateAsc(userId, SuggestionStatus.PENDING);
+    }
+
+    /**
+     * Apply the suggested times to the work log; hours and amount are recalculated on update
+     * @throws IllegalStateException if already reviewed or the work log has been invoiced
+     */
+    public WorkLogSuggestion acceptSuggestion(Long id) {
+        WorkLogSuggestion suggestion = getPendingSuggestion(id);
+        WorkLog workLog = suggestion.getWorkLog();
+        if (Boolean.TRUE.equals(workLog.getInvoiced())) {
+            throw new IllegalStateException("Work log has already been invoiced");
+        }
+        workLog.setStartTime(suggestion.getSuggestedStartTime());
+        workLog.setEndTime(suggestion.getSuggestedEndTime());
+        workLogRepository.save(workLog);
+
+        markReviewed(suggestion, SuggestionStatus.ACCEPTED);
+        log.info("Work log {} times updated to {}-{} from accepted suggestion {}",
+                workLog.getId(), workLog.getStartTime(), workLog.getEndTime(), id);
+        return suggestion;
+    }
+
+    public WorkLogSuggestion rejectSuggestion(Long id) {
+        WorkLogSuggestion suggestion = getPendingSuggestion(id);
+        markReviewed(suggestion, SuggestionStatus.REJECTED);
+        return suggestion;
+    }
+
+    private WorkLogSuggestion getPendingSuggestion(Long id) {
+        WorkLogSuggestion suggestion = suggestionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Work log suggestion not found with id: " + id));
+        if (suggestion.getStatus() != SuggestionStatus.PENDING) {
+            throw new IllegalStateException("Work log suggestion has already been reviewed");
+        }
+        return suggestion;
+    }
+
+    private void markReviewed(WorkLogSuggestion suggestion, SuggestionStatus status) {
+        suggestion.setStatus(status);
+        suggestion.setReviewedBy(authHelper.getCurrentPrincipal().username());
+        suggestion.setReviewedAt(LocalDateTime.now());
+        suggestionRepository.save(suggestion);
+    }
+
+    private boolean withinTolerance(LocalTime logged, LocalTime suggested) {
+        return Math.abs(Duration.between(logged, suggested).toMinutes()) <= toleranceMinutes;
+    }
+
+    private LocalTime round(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute() + (time.getSecond() >= 30 ? 1 : 0);
+        int rounded = Math.min((minutes + roundMinutes / 2) / roundMinutes * roundMinutes, 23 * 60 + 59);
+        return LocalTime.of(rounded / 60, rounded % 60);
+    }
+}
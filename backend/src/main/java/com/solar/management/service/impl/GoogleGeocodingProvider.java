@@ -0,0 +1,110 @@
+package com.solar.management.service.impl;
+
+import com.google.maps.GeoApiContext;
+import com.google.maps.GeocodingApi;
+import com.google.maps.model.AddressComponent;
+import com.google.maps.model.AddressComponentType;
+import com.google.maps.model.GeocodingResult;
+import com.google.maps.model.LatLng;
+import com.solar.management.service.GeocodingProvider;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Google Maps Geocoding API provider
+ * Connect and read timeouts are bounded and retries are capped so one slow call cannot hold a
+ * request thread for the client library's default minute of retries.
+ */
+@Component
+@ConditionalOnProperty(name = "app.geocoding.provider", havingValue = "google", matchIfMissing = true)
+public class GoogleGeocodingProvider implements GeocodingProvider {
+
+    private final GeoApiContext geoApiContext;
+
+    public GoogleGeocodingProvider(
+            @Value("${google.maps.api-key}") String apiKey,
+            @Value("${app.geocoding.upstream.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${app.geocoding.upstream.read-timeout-ms:3000}") long readTimeoutMs,
+            @Value("${app.geocoding.upstream.max-retries:1}") int maxRetries
+    ) {
+        this.geoApiContext = new GeoApiContext.Builder()
+                .apiKey(apiKey)
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .retryTimeout(connectTimeoutMs + readTimeoutMs, TimeUnit.MILLISECONDS)
+                .maxRetries(maxRetries)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        geoApiContext.shutdown();
+    }
+
+    @Override
+    public Address reverse(double latitude, double longitude) throws Exception {
+        GeocodingResult[] results = GeocodingApi.reverseGeocode(geoApiContext, new LatLng(latitude, longitude)).await();
+        if (results == null || results.length == 0) {
+            return null;
+        }
+        return toAddress(results[0], latitude, longitude);
+    }
+
+    @Override
+    public Address forward(String address) throws Exception {
+        GeocodingResult[] results = GeocodingApi.geocode(geoApiContext, address).await();
+        if (results == null || results.length == 0 || results[0].geometry == null) {
+            return null;
+        }
+        GeocodingResult result = results[0];
+        return toAddress(result, result.geometry.location.lat, result.geometry.location.lng);
+    }
+
+    private Address toAddress(GeocodingResult result, double latitude, double longitude) {
+        Map<String, String> components = extractAddressComponents(result.addressComponents);
+        return new Address(result.formattedAddress, components.get("city"), components.get("state"),
+                components.get("postalCode"), components.get("country"), latitude, longitude);
+    }
+
+    /**
+     * Extract address components from Google API result
+     */
+    private Map<String, String> extractAddressComponents(AddressComponent[] components) {
+        Map<String, String> result = new HashMap<>();
+
+        for (AddressComponent component : components) {
+            for (AddressComponentType type : component.types) {
+                switch (type) {
+                    case STREET_NUMBER:
+                        result.put("streetNumber", component.longName);
+                        break;
+                    case ROUTE:
+                        result.put("route", component.longName);
+                        break;
+                    case LOCALITY:
+                        result.put("city", component.longName);
+                        break;
+                    case ADMINISTRATIVE_AREA_LEVEL_1:
+                        result.put("state", component.shortName);
+                        break;
+                    case POSTAL_CODE:
+                        result.put("postalCode", component.longName);
+                        break;
+                    case COUNTRY:
+                        result.put("country", component.longName);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        return result;
+    }
+}
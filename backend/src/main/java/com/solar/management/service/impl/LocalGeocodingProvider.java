@@ -0,0 +1,39 @@
+package com.solar.management.service.impl;
+
+import com.solar.management.service.AddressGazetteer;
+import com.solar.management.service.GazetteerTable;
+import com.solar.management.service.GeocodingProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Offline stand-in for the Maps API, for tests and local development
+ * Reverse lookups return a synthetic address naming the coordinates; forward lookups are
+ * answered from the local gazetteer only. Never makes network calls.
+ */
+@Component
+@ConditionalOnProperty(name = "app.geocoding.provider", havingValue = "local")
+@RequiredArgsConstructor
+public class LocalGeocodingProvider implements GeocodingProvider {
+
+    private final AddressGazetteer gazetteer;
+
+    @Override
+    public Address reverse(double latitude, double longitude) {
+        String formatted = String.format(Locale.ROOT, "%.5f, %.5f", latitude, longitude);
+        return new Address(formatted, null, null, null, null, latitude, longitude);
+    }
+
+    @Override
+    public Address forward(String address) {
+        GazetteerTable.Entry entry = gazetteer.find(address);
+        if (entry == null) {
+            return null;
+        }
+        return new Address(entry.address(), entry.locality(), entry.state(), entry.postcode(), "Australia",
+                entry.latitude(), entry.longitude());
+    }
+}
@@ -2,8 +2,10 @@ package com.solar.management.service.impl;
 
 import com.solar.management.entity.Location;
 import com.solar.management.repository.LocationRepository;
+import com.solar.management.service.JobSitesChangedEvent;
 import com.solar.management.service.LocationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ import java.util.Optional;
 public class LocationServiceImpl implements LocationService {
 
     private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -49,7 +52,9 @@ public class LocationServiceImpl implements LocationService {
 
     @Override
     public Location createLocation(Location location) {
-        return locationRepository.save(location);
+        Location saved = locationRepository.save(location);
+        eventPublisher.publishEvent(new JobSitesChangedEvent());
+        return saved;
     }
 
     @Override
@@ -65,11 +70,14 @@ public class LocationServiceImpl implements LocationService {
                     existing.setCountry(location.getCountry());
                     existing.setLatitude(location.getLatitude());
                     existing.setLongitude(location.getLongitude());
+                    existing.setGeofenceRadius(location.getGeofenceRadius());
                     existing.setContactPerson(location.getContactPerson());
                     existing.setContactPhone(location.getContactPhone());
                     existing.setNotes(location.getNotes());
                     existing.setActive(location.getActive());
-                    return locationRepository.save(existing);
+                    Location saved = locationRepository.save(existing);
+                    eventPublisher.publishEvent(new JobSitesChangedEvent());
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Location not found with id: " + id));
     }
@@ -77,5 +85,6 @@ public class LocationServiceImpl implements LocationService {
     @Override
     public void deleteLocation(Long id) {
         locationRepository.deleteById(id);
+        eventPublisher.publishEvent(new JobSitesChangedEvent());
     }
 }
@@ -2,6 +2,7 @@ package com.solar.management.service.impl;
 
 import com.solar.management.entity.User;
 import com.solar.management.repository.UserRepository;
+import com.solar.management.security.PrincipalCache;
 import com.solar.management.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,6 +19,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -70,7 +72,9 @@ public class UserServiceImpl implements UserService {
                     existing.setPhoneNumber(user.getPhoneNumber());
                     existing.setRole(user.getRole());
                     existing.setActive(user.getActive());
-                    return userRepository.save(existing);
+                    User saved = userRepository.save(existing);
+                    principalCache.evictUser(id);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
@@ -78,6 +82,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        principalCache.evictUser(id);
     }
 
     @Override
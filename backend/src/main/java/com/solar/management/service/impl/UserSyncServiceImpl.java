@@ -4,6 +4,7 @@ import com.solar.management.dto.KeycloakUserSyncDTO;
 import com.solar.management.entity.User;
 import com.solar.management.repository.UserRepository;
 import com.solar.management.service.UserSyncService;
+import com.solar.management.service.UserSyncWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -20,6 +21,8 @@ import java.util.UUID;
 /**
  * Implementation of UserSyncService
  * Handles automatic synchronization of users from Keycloak JWT tokens to the database
+ * Users are created and linked on the calling thread, since the request needs the row;
+ * profile updates of existing users are handed to UserSyncWriter and written in the background
  */
 @Service
 @RequiredArgsConstructor
@@ -27,6 +30,7 @@ import java.util.UUID;
 public class UserSyncServiceImpl implements UserSyncService {
 
     private final UserRepository userRepository;
+    private final UserSyncWriter userSyncWriter;
 
     // Only sync if last sync was more than 5 minutes ago (throttling)
     private static final long SYNC_THROTTLE_MINUTES = 5;
@@ -102,7 +106,7 @@ public class UserSyncServiceImpl implements UserSyncService {
                             user.getUsername(), userDTO.getKeycloakId());
                     user.setKeycloakId(userDTO.getKeycloakId());
                     user.setSyncSource(User.SyncSource.KEYCLOAK_AUTO);
-                    return updateExistingUser(user, userDTO);
+                    return updateExistingUser(userRepository.save(user), userDTO);
                 } else {
                     // Username conflict with different keycloakId - use modified username
                     log.warn("Username {} already exists with different keycloakId, creating with suffix",
@@ -164,7 +168,8 @@ public class UserSyncServiceImpl implements UserSyncService {
     }
 
     /**
-     * Update existing user from Keycloak data
+     * Queue an update of an existing user from Keycloak data
+     * Returns the user as read; the update is written by UserSyncWriter
      */
     private User updateExistingUser(User user, KeycloakUserSyncDTO userDTO) {
         LocalDateTime lastSync = user.getLastKeycloakSync();
@@ -176,20 +181,12 @@ public class UserSyncServiceImpl implements UserSyncService {
             return user;
         }
 
-        // Update fields from Keycloak (always take Keycloak as source of truth)
-        user.setEmail(userDTO.getEmail());
-        user.setFirstName(userDTO.getFirstName());
-        user.setLastName(userDTO.getLastName());
-        user.setRole(determineHighestRole(userDTO.getRoles()));
-        user.setUsername(userDTO.getUsername());
-        user.setLastKeycloakSync(LocalDateTime.now());
-
-        // Preserve database-managed fields: phoneNumber, abn, address, account, jobs, etc.
-
-        User savedUser = userRepository.save(user);
-        log.debug("Updated user from Keycloak: username={}, keycloakId={}, role={}",
-                userDTO.getUsername(), userDTO.getKeycloakId(), user.getRole());
-        return savedUser;
+        userSyncWriter.enqueue(new UserSyncWriter.ProfileUpdate(userDTO.getKeycloakId(), userDTO.getUsername(),
+                userDTO.getEmail(), userDTO.getFirstName(), userDTO.getLastName(),
+                determineHighestRole(userDTO.getRoles())));
+        log.debug("Queued user sync from Keycloak: username={}, keycloakId={}",
+                userDTO.getUsername(), userDTO.getKeycloakId());
+        return user;
     }
 
     /**
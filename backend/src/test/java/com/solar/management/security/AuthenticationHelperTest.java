@@ -0,0 +1,133 @@
+package com.solar.management.security;
+
+import com.solar.management.entity.User;
+import com.solar.management.repository.UserRepository;
+import com.solar.management.service.JobAccessIndex;
+import com.solar.management.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts UserRepository lookups behind AuthenticationHelper for repeated calls with one token
+ */
+class AuthenticationHelperTest {
+
+    private UserRepository userRepository;
+    private PrincipalCache principalCache;
+    private AuthenticationHelper authHelper;
+    private User technician;
+
+    @BeforeEach
+    void setUp() {
+        technician = User.builder()
+                .id(42L)
+                .keycloakId("kc-42")
+                .username("sam")
+                .role(User.UserRole.TECHNICIAN)
+                .build();
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByKeycloakId("kc-42")).thenReturn(Optional.of(technician));
+        when(userRepository.findById(42L)).thenReturn(Optional.of(technician));
+
+        principalCache = new PrincipalCache(100, 300);
+        UserServiceImpl userService = new UserServiceImpl(userRepository, mock(PasswordEncoder.class), principalCache);
+        authHelper = new AuthenticationHelper(userService, principalCache, mock(JobAccessIndex.class));
+
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("kc-42")
+                .jti("token-1")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void repeatedGetCurrentUserInOneRequestQueriesOnce() {
+        startRequest();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(authHelper.getCurrentUser()).isSameAs(technician);
+            assertThat(authHelper.isTechnician()).isTrue();
+            authHelper.validateUserAccess(42L);
+        }
+
+        verify(userRepository, times(1)).findByKeycloakId("kc-42");
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void accessChecksAcrossRequestsWithTheSameTokenQueryOnce() {
+        for (int request = 0; request < 5; request++) {
+            startRequest();
+            assertThat(authHelper.isAdminOrManager()).isFalse();
+            authHelper.validateUserAccess(42L);
+            assertThatThrownBy(() -> authHelper.validateUserAccess(7L)).isInstanceOf(AccessDeniedException.class);
+        }
+
+        verify(userRepository, times(1)).findByKeycloakId("kc-42");
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void cacheHoldsASnapshotAndTheEntityIsRefetchedById() {
+        startRequest();
+        CurrentPrincipal principal = authHelper.getCurrentPrincipal();
+        assertThat(principal).isEqualTo(new CurrentPrincipal(42L, "kc-42", "sam", User.UserRole.TECHNICIAN));
+
+        startRequest();
+        authHelper.getCurrentUser();
+        authHelper.getCurrentUser();
+
+        verify(userRepository, times(1)).findByKeycloakId("kc-42");
+        verify(userRepository, times(1)).findById(42L);
+    }
+
+    @Test
+    void evictedUserIsResolvedAgainWithTheNewRole() {
+        startRequest();
+        assertThat(authHelper.isTechnician()).isTrue();
+
+        User promoted = User.builder().id(42L).keycloakId("kc-42").username("sam").role(User.UserRole.MANAGER).build();
+        when(userRepository.findByKeycloakId("kc-42")).thenReturn(Optional.of(promoted));
+        principalCache.evictUser(42L);
+
+        startRequest();
+        assertThat(authHelper.isAdminOrManager()).isTrue();
+        verify(userRepository, times(2)).findByKeycloakId("kc-42");
+        verify(userRepository, never()).findById(42L);
+    }
+
+    private static void startRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.solar.management.security;
+
+import com.solar.management.entity.User;
+import com.solar.management.repository.UserRepository;
+import com.solar.management.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL behind a technician GET that goes through UserSyncFilter and the controller
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CurrentUserQueryCountTest {
+
+    private static final String KEYCLOAK_ID = "0f9c2b1e-query-count";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByKeycloakId(KEYCLOAK_ID).isEmpty()) {
+            userRepository.save(User.builder()
+                    .keycloakId(KEYCLOAK_ID)
+                    .username("query.count")
+                    .email("query.count@example.com")
+                    .password("unused")
+                    .firstName("Query")
+                    .lastName("Count")
+                    .role(User.UserRole.TECHNICIAN)
+                    .active(true)
+                    .syncSource(User.SyncSource.KEYCLOAK_AUTO)
+                    .lastKeycloakSync(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Test
+    void repeatedGetWithTheSameTokenRunsNoUserLookups() throws Exception {
+        RequestPostProcessor token = token("token-" + System.nanoTime());
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/jobs").with(token)).andExpect(status().isOk());
+        List<String> firstRequest = SqlStatementCounter.statements();
+
+        for (int i = 0; i < 3; i++) {
+            SqlStatementCounter.reset();
+            mockMvc.perform(get("/api/jobs").with(token)).andExpect(status().isOk());
+
+            // Only the technician's job query; the user comes from the principal cache
+            assertThat(SqlStatementCounter.statements()).hasSize(1);
+            assertThat(SqlStatementCounter.statements().get(0)).contains("job_technicians");
+        }
+        // The first request with a new token syncs the user
+        assertThat(firstRequest).hasSizeGreaterThan(1);
+    }
+
+    private static RequestPostProcessor token(String jti) {
+        return jwt().jwt(jwt -> jwt
+                .subject(KEYCLOAK_ID)
+                .claim("jti", jti)
+                .claim("preferred_username", "query.count")
+                .claim("email", "query.count@example.com")
+                .claim("realm_access", Map.of("roles", List.of("TECHNICIAN")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300)));
+    }
+}
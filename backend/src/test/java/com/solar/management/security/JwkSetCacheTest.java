@@ -0,0 +1,45 @@
+package com.solar.management.security;
+
+import com.nimbusds.jose.RemoteKeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwkSetCacheTest {
+
+    private static final JWKSelector SELECTOR = new JWKSelector(new JWKMatcher.Builder().keyID("signing-key").build());
+
+    @Test
+    void failedFetchWithoutKeysFailsFastUntilTheIntervalPasses() throws Exception {
+        JwkSetCache cache = new JwkSetCache(unreachableJwksUri(), 500, 500, 60_000);
+
+        assertThatThrownBy(() -> cache.get(SELECTOR, null)).isInstanceOf(RemoteKeySourceException.class);
+        assertThatThrownBy(() -> cache.get(SELECTOR, null)).isInstanceOf(RemoteKeySourceException.class);
+        assertThatThrownBy(() -> cache.get(SELECTOR, null)).isInstanceOf(RemoteKeySourceException.class);
+
+        // Only the first token tried Keycloak; the others failed without a request
+        assertThat(cache.getStats()).containsEntry("jwksFetchFailures", 1L);
+    }
+
+    @Test
+    void fetchIsRetriedOnceTheIntervalHasPassed() throws Exception {
+        JwkSetCache cache = new JwkSetCache(unreachableJwksUri(), 500, 500, 0);
+
+        assertThatThrownBy(() -> cache.get(SELECTOR, null)).isInstanceOf(RemoteKeySourceException.class);
+        assertThatThrownBy(() -> cache.get(SELECTOR, null)).isInstanceOf(RemoteKeySourceException.class);
+
+        assertThat(cache.getStats()).containsEntry("jwksFetchFailures", 2L);
+    }
+
+    private static String unreachableJwksUri() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return "http://localhost:" + socket.getLocalPort() + "/realms/solar-management/protocol/openid-connect/certs";
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.DispatchCandidateDTO;
+import com.solar.management.dto.TechnicianScheduleRow;
+import com.solar.management.entity.Job;
+import com.solar.management.entity.User;
+import com.solar.management.repository.JobRepository;
+import com.solar.management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DispatchServiceTest {
+
+    private JobRepository jobRepository;
+    private DispatchService dispatchService;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByRoleAndActiveTrue(User.UserRole.TECHNICIAN))
+                .thenReturn(List.of(technician(1L, "Busy"), technician(2L, "Free"), technician(3L, "Later")));
+
+        TechnicianSpatialIndex spatialIndex = mock(TechnicianSpatialIndex.class);
+        long now = System.currentTimeMillis();
+        when(spatialIndex.nearest(anyDouble(), anyDouble(), anyInt(), any(), anyLong())).thenReturn(List.of(
+                new TechnicianSpatialIndex.Neighbour(1L, -27.47, 153.02, now, 1_000),
+                new TechnicianSpatialIndex.Neighbour(2L, -27.48, 153.03, now, 4_000),
+                new TechnicianSpatialIndex.Neighbour(3L, -27.49, 153.04, now, 9_000)));
+
+        jobRepository = mock(JobRepository.class);
+        dispatchService = new DispatchService(spatialIndex, userRepository, jobRepository);
+        ReflectionTestUtils.setField(dispatchService, "candidateFactor", 3);
+        ReflectionTestUtils.setField(dispatchService, "maxPositionAgeMinutes", 120L);
+        ReflectionTestUtils.setField(dispatchService, "averageSpeedKmh", 50d);
+        ReflectionTestUtils.setField(dispatchService, "roadFactor", 1.3);
+    }
+
+    @Test
+    void schedulesOfAllCandidatesAreReadInOneQuery() {
+        LocalDateTime now = LocalDateTime.now();
+        when(jobRepository.findSchedules(any(), any(), any(), any())).thenReturn(List.of(
+                new TechnicianScheduleRow(1L, "JOB-1", Job.JobStatus.IN_PROGRESS, now.minusHours(1), now.plusHours(1)),
+                new TechnicianScheduleRow(3L, "JOB-3", Job.JobStatus.SCHEDULED, now.plusMinutes(1), now.plusHours(2))));
+
+        List<DispatchCandidateDTO> candidates = dispatchService.findNearestTechnicians(-27.47, 153.02, 3);
+
+        verify(jobRepository, times(1)).findSchedules(List.of(1L, 2L, 3L), now.toLocalDate().atStartOfDay(),
+                now.toLocalDate().plusDays(1).atStartOfDay(), List.of(Job.JobStatus.COMPLETED, Job.JobStatus.CANCELLED));
+        verify(jobRepository, never()).findByAssignedTo(any());
+
+        // Available technicians first, each group nearest first
+        assertThat(candidates).extracting(DispatchCandidateDTO::getUserId).containsExactly(2L, 3L, 1L);
+        assertThat(candidates.get(1).getNextJobNumber()).isEqualTo("JOB-3");
+        assertThat(candidates.get(2).getCurrentJobNumber()).isEqualTo("JOB-1");
+        assertThat(candidates.get(0).getJobsToday()).isZero();
+    }
+
+    private static User technician(Long id, String firstName) {
+        return User.builder().id(id).firstName(firstName).lastName("Tech").role(User.UserRole.TECHNICIAN).build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.solar.management.service;
+
+import com.solar.management.entity.WorkLog;
+import com.solar.management.entity.WorkLogSuggestion;
+import com.solar.management.entity.WorkLogSuggestion.SuggestionStatus;
+import com.solar.management.repository.WorkLogRepository;
+import com.solar.management.repository.WorkLogSuggestionRepository;
+import com.solar.management.security.AuthenticationHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Geofence events through DwellDetector into WorkLogSuggestionService, against mocked repositories
+ */
+class DwellDetectorTest {
+
+    private static final long USER_ID = 3L;
+    private static final long JOB_ID = 11L;
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 4);
+
+    private WorkLogSuggestionRepository suggestionRepository;
+    private WorkLog workLog;
+    private DwellDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        workLog = WorkLog.builder()
+                .id(100L)
+                .workDate(DAY)
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(16, 0))
+                .build();
+
+        WorkLogRepository workLogRepository = mock(WorkLogRepository.class);
+        when(workLogRepository.findByUserJobAndDate(USER_ID, JOB_ID, DAY)).thenReturn(List.of(workLog));
+        suggestionRepository = mock(WorkLogSuggestionRepository.class);
+        when(suggestionRepository.findFirstByWorkLogIdOrderByCreatedAtDesc(100L)).thenReturn(Optional.empty());
+
+        WorkLogSuggestionService suggestionService = new WorkLogSuggestionService(
+                suggestionRepository, workLogRepository, mock(AuthenticationHelper.class));
+        ReflectionTestUtils.setField(suggestionService, "toleranceMinutes", 15L);
+        ReflectionTestUtils.setField(suggestionService, "roundMinutes", 5);
+
+        detector = new DwellDetector(suggestionService);
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "minMinutes", 10L);
+    }
+
+    @Test
+    void longDwellProposesRoundedTimes() {
+        visit(JOB_ID, at(7, 32), at(17, 48));
+
+        WorkLogSuggestion suggestion = savedSuggestion();
+        assertThat(suggestion.getSuggestedStartTime()).isEqualTo(LocalTime.of(7, 30));
+        assertThat(suggestion.getSuggestedEndTime()).isEqualTo(LocalTime.of(17, 50));
+        assertThat(suggestion.getCurrentStartTime()).isEqualTo(LocalTime.of(8, 0));
+        assertThat(suggestion.getStatus()).isEqualTo(SuggestionStatus.PENDING);
+    }
+
+    @Test
+    void dwellWithinToleranceOfLoggedTimesIsIgnored() {
+        visit(JOB_ID, at(8, 6), at(15, 52));
+
+        verify(suggestionRepository, never()).save(any());
+    }
+
+    @Test
+    void shortVisitsAndMismatchedDeparturesAreIgnored() {
+        visit(JOB_ID, at(7, 0), at(7, 5));
+        detector.onGeofenceEvent(event(GeofenceEvent.Type.ARRIVE, JOB_ID, at(7, 0)));
+        detector.onGeofenceEvent(event(GeofenceEvent.Type.DEPART, 99L, at(18, 0)));
+
+        verify(suggestionRepository, never()).save(any());
+    }
+
+    @Test
+    void laterDwellExtendsThePendingSuggestion() {
+        WorkLogSuggestion pending = WorkLogSuggestion.builder()
+                .workLog(workLog)
+                .firstArrival(at(7, 30))
+                .lastDeparture(at(12, 0))
+                .suggestedStartTime(LocalTime.of(7, 30))
+                .suggestedEndTime(LocalTime.of(12, 0))
+                .status(SuggestionStatus.PENDING)
+                .build();
+        when(suggestionRepository.findFirstByWorkLogIdOrderByCreatedAtDesc(100L)).thenReturn(Optional.of(pending));
+
+        visit(JOB_ID, at(13, 0), at(17, 41));
+
+        verify(suggestionRepository, never()).save(any());
+        assertThat(pending.getFirstArrival()).isEqualTo(at(7, 30));
+        assertThat(pending.getLastDeparture()).isEqualTo(at(17, 41));
+        assertThat(pending.getSuggestedStartTime()).isEqualTo(LocalTime.of(7, 30));
+        assertThat(pending.getSuggestedEndTime()).isEqualTo(LocalTime.of(17, 40));
+    }
+
+    private void visit(Long jobId, LocalDateTime arrival, LocalDateTime departure) {
+        detector.onGeofenceEvent(event(GeofenceEvent.Type.ARRIVE, jobId, arrival));
+        detector.onGeofenceEvent(event(GeofenceEvent.Type.DEPART, jobId, departure));
+    }
+
+    private WorkLogSuggestion savedSuggestion() {
+        ArgumentCaptor<WorkLogSuggestion> captor = ArgumentCaptor.forClass(WorkLogSuggestion.class);
+        verify(suggestionRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static GeofenceEvent event(GeofenceEvent.Type type, Long jobId, LocalDateTime timestamp) {
+        return new GeofenceEvent(type, USER_ID, jobId, -27.47, 153.02, timestamp);
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.atTime(hour, minute);
+    }
+}
@@ -0,0 +1,204 @@
+package com.solar.management.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.solar.management.entity.EmailOutboxMessage;
+import com.solar.management.entity.Invoice;
+import com.solar.management.repository.EmailOutboxRepository;
+import jakarta.mail.Multipart;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox round trip against an in-memory repository and an embedded GreenMail SMTP server
+ */
+class EmailDeliveryWorkerTest {
+
+    private static final long BASE_DELAY_SECONDS = 60;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @TempDir
+    Path uploadDir;
+
+    private final Map<Long, EmailOutboxMessage> rows = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private JavaMailSender mailSender;
+    private InvoiceEmailService invoiceEmailService;
+    private Invoice invoice;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            EmailOutboxMessage message = invocation.getArgument(0);
+            if (message.getId() == null) {
+                message.setId(ids.incrementAndGet());
+            }
+            rows.put(message.getId(), message);
+            return message;
+        });
+        when(repository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+        when(repository.findDueForDelivery(any(), any())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return rows.values().stream()
+                    .filter(m -> m.getStatus() == EmailOutboxMessage.EmailStatus.PENDING)
+                    .filter(m -> !m.getNextAttemptAt().isAfter(now))
+                    .sorted(Comparator.comparing(EmailOutboxMessage::getNextAttemptAt))
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+
+        invoiceEmailService = new InvoiceEmailService(repository);
+        ReflectionTestUtils.setField(invoiceEmailService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(invoiceEmailService, "retryBaseDelaySeconds", BASE_DELAY_SECONDS);
+        ReflectionTestUtils.setField(invoiceEmailService, "retryMaxDelaySeconds", 3600L);
+
+        mailSender = smtpSender(greenMail.getSmtp().getPort());
+
+        Files.writeString(uploadDir.resolve("INV-0001.xlsx"), "invoice");
+        invoice = Invoice.builder()
+                .id(7L)
+                .invoiceNumber("INV-0001")
+                .billToName("Acme Solar")
+                .billToEmail("accounts@acme.example")
+                .technicianName("Sam Tech")
+                .periodStartDate(LocalDate.of(2026, 3, 2))
+                .periodEndDate(LocalDate.of(2026, 3, 8))
+                .totalAmount(new BigDecimal("1100.00"))
+                .fileUrl("INV-0001.xlsx")
+                .build();
+    }
+
+    @Test
+    void queuedMessageIsPolledSentAndMarkedSent() throws Exception {
+        EmailOutboxMessage queued = invoiceEmailService.queueInvoiceEmail(invoice);
+        assertThat(queued.getStatus()).isEqualTo(EmailOutboxMessage.EmailStatus.PENDING);
+        assertThat(queued.getAttempts()).isZero();
+
+        pollOnce();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getAllRecipients()).extracting(Object::toString).containsExactly("accounts@acme.example");
+        assertThat(received[0].getFrom()).extracting(Object::toString).containsExactly("billing@solar.example");
+        assertThat(received[0].getSubject()).isEqualTo(queued.getSubject());
+        Multipart parts = (Multipart) received[0].getContent();
+        assertThat(parts.getBodyPart(parts.getCount() - 1).getFileName()).isEqualTo("INV-0001.xlsx");
+
+        EmailOutboxMessage delivered = rows.get(queued.getId());
+        assertThat(delivered.getStatus()).isEqualTo(EmailOutboxMessage.EmailStatus.SENT);
+        assertThat(delivered.getAttempts()).isEqualTo(1);
+        assertThat(delivered.getSentAt()).isNotNull();
+        assertThat(delivered.getAttachmentPath()).isEqualTo("INV-0001.xlsx");
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoffThenDeadLettered() throws Exception {
+        // Nothing listens on this port, so every connection attempt fails
+        mailSender = smtpSender(unusedPort());
+        EmailOutboxMessage message = invoiceEmailService.queueInvoiceEmail(invoice);
+
+        pollOnce();
+        assertThat(message.getStatus()).isEqualTo(EmailOutboxMessage.EmailStatus.PENDING);
+        assertThat(message.getAttempts()).isEqualTo(1);
+        assertThat(message.getLastError()).contains("Couldn't connect to host");
+        assertThat(message.getNextAttemptAt())
+                .isCloseTo(LocalDateTime.now().plusSeconds(BASE_DELAY_SECONDS), within(5, ChronoUnit.SECONDS));
+
+        // Not due yet: a poll before the backoff elapses does not try again
+        pollOnce();
+        assertThat(message.getAttempts()).isEqualTo(1);
+
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        pollOnce();
+        assertThat(message.getAttempts()).isEqualTo(2);
+        assertThat(message.getNextAttemptAt())
+                .isCloseTo(LocalDateTime.now().plusSeconds(2 * BASE_DELAY_SECONDS), within(5, ChronoUnit.SECONDS));
+
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        pollOnce();
+        assertThat(message.getAttempts()).isEqualTo(3);
+        assertThat(message.getStatus()).isEqualTo(EmailOutboxMessage.EmailStatus.DEAD);
+
+        pollOnce();
+        assertThat(message.getAttempts()).isEqualTo(3);
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void invoiceWithoutBillToEmailIsNotQueued() {
+        invoice.setBillToEmail(" ");
+
+        assertThat(invoiceEmailService.queueInvoiceEmail(invoice)).isNull();
+
+        pollOnce();
+        assertThat(rows).isEmpty();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    /**
+     * Run one poll and wait for the claimed batches to finish on the worker pool
+     */
+    private void pollOnce() {
+        InvoiceService invoiceService = mock(InvoiceService.class);
+        when(invoiceService.getInvoiceById(any())).thenReturn(invoice);
+
+        EmailDeliveryWorker worker = new EmailDeliveryWorker(invoiceEmailService, invoiceService, mailSender);
+        ReflectionTestUtils.setField(worker, "enabled", true);
+        ReflectionTestUtils.setField(worker, "fromAddress", "billing@solar.example");
+        ReflectionTestUtils.setField(worker, "workers", 2);
+        ReflectionTestUtils.setField(worker, "batchSize", 20);
+        ReflectionTestUtils.setField(worker, "uploadDir", uploadDir.toString());
+        worker.init();
+        try {
+            worker.poll();
+        } finally {
+            worker.shutdown();
+        }
+    }
+
+    private static JavaMailSender smtpSender(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(port);
+        sender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return sender;
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.CoordinateDTO;
+import com.solar.management.entity.GeocodingCache;
+import com.solar.management.repository.GeocodingCacheRepository;
+import com.solar.management.repository.LocationRepository;
+import com.solar.management.repository.LocationTrackingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch geocoding through GeocodingService against a stub provider
+ */
+class GeocodingBatchServiceTest {
+
+    private final List<String> providerCalls = Collections.synchronizedList(new ArrayList<>());
+
+    private GeocodingCacheRepository cacheRepository;
+    private AddressGazetteer gazetteer;
+    private GeocodingService geocodingService;
+    private GeocodingBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        cacheRepository = mock(GeocodingCacheRepository.class);
+        when(cacheRepository.findByLatitudeAndLongitude(anyDouble(), anyDouble())).thenReturn(Optional.empty());
+        when(cacheRepository.findValidByGeohashIn(any(), any())).thenReturn(List.of());
+
+        GeocodingProvider provider = new GeocodingProvider() {
+            @Override
+            public Address reverse(double latitude, double longitude) {
+                providerCalls.add("reverse " + latitude + "," + longitude);
+                return new Address("Site " + latitude + "," + longitude, "Brisbane", "QLD", "4000", "Australia",
+                        latitude, longitude);
+            }
+
+            @Override
+            public Address forward(String address) {
+                providerCalls.add("forward " + address);
+                return new Address(address, "Brisbane", "QLD", "4000", "Australia", -27.4698, 153.0251);
+            }
+        };
+
+        gazetteer = mock(AddressGazetteer.class);
+        geocodingService = new GeocodingService(cacheRepository, new GeocodingResultCache(1000, 60, 300), provider,
+                new GeocodingCircuitBreaker(8, 200, 5, 30), 0, gazetteer, 12, 30, 2);
+        batchService = newBatchService(100, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+        geocodingService.shutdown();
+    }
+
+    @Test
+    void reverseBatchDedupesRoundedCoordinatesAndInsertsOnce() {
+        CoordinateDTO a = new CoordinateDTO(-27.469771, 153.025124);
+        CoordinateDTO aJittered = new CoordinateDTO(-27.469772, 153.025122);
+        CoordinateDTO b = new CoordinateDTO(-27.47, 153.03);
+
+        List<Map<String, Object>> results = batchService.reverseGeocodeBatch(List.of(a, aJittered, b, a));
+
+        assertThat(providerCalls).hasSize(2);
+        assertThat(results).hasSize(4);
+        assertThat(results.get(0)).isEqualTo(results.get(1)).isEqualTo(results.get(3));
+        assertThat(results.get(2).get("formattedAddress")).isEqualTo("Site -27.47,153.03");
+
+        List<GeocodingCache> inserted = captureSingleBatchInsert();
+        assertThat(inserted).extracting(GeocodingCache::getLatitude).containsExactlyInAnyOrder(-27.46977, -27.47);
+    }
+
+    @Test
+    void repeatedBatchIsServedFromTheCache() {
+        List<CoordinateDTO> coordinates = List.of(new CoordinateDTO(-27.46977, 153.02512), new CoordinateDTO(-27.47, 153.03));
+        batchService.reverseGeocodeBatch(coordinates);
+
+        List<Map<String, Object>> again = batchService.reverseGeocodeBatch(coordinates);
+
+        assertThat(providerCalls).hasSize(2);
+        assertThat(again).allSatisfy(result -> assertThat(result).doesNotContainKey("error"));
+        verify(cacheRepository, times(1)).batchInsert(any());
+    }
+
+    @Test
+    void forwardBatchDedupesNormalisedAddressesAndKeepsInputOrder() {
+        List<Map<String, Object>> results = batchService.forwardGeocodeBatch(
+                List.of("1 Solar St, Brisbane", "  1 solar st,   BRISBANE ", "2 Panel Rd, Brisbane"));
+
+        assertThat(providerCalls).containsExactlyInAnyOrder("forward 1 Solar St, Brisbane", "forward 2 Panel Rd, Brisbane");
+        assertThat(results).extracting(result -> result.get("query"))
+                .containsExactly("1 Solar St, Brisbane", "  1 solar st,   BRISBANE ", "2 Panel Rd, Brisbane");
+        assertThat(results.get(1).get("formattedAddress")).isEqualTo("1 Solar St, Brisbane");
+        assertThat(captureSingleBatchInsert()).hasSize(2);
+    }
+
+    @Test
+    void forwardBatchAnswersGazetteerAddressesWithoutCallingTheProvider() {
+        when(gazetteer.find("3 Inverter Ave, Brisbane")).thenReturn(new GazetteerTable.Entry(
+                "3 INVERTER AVENUE", "BRISBANE", "QLD", "4000", -27.471, 153.026));
+
+        List<Map<String, Object>> results = batchService.forwardGeocodeBatch(
+                List.of("3 Inverter Ave, Brisbane", "2 Panel Rd, Brisbane"));
+
+        assertThat(providerCalls).containsExactly("forward 2 Panel Rd, Brisbane");
+        assertThat(results.get(0)).containsEntry("formattedAddress", "3 INVERTER AVENUE").containsEntry("lat", -27.471);
+        assertThat(captureSingleBatchInsert()).hasSize(1);
+    }
+
+    @Test
+    void upstreamCallsAreRateLimited() {
+        batchService.shutdown();
+        batchService = newBatchService(10, 1);
+        List<CoordinateDTO> coordinates = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            coordinates.add(new CoordinateDTO(-27.4 - i * 0.01, 153.0));
+        }
+
+        long started = System.nanoTime();
+        batchService.reverseGeocodeBatch(coordinates);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // One token up front, then one every 100 ms for the other five
+        assertThat(providerCalls).hasSize(6);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(450);
+    }
+
+    @Test
+    void batchThatDoesNotFitInTheQueueIsRejected() {
+        batchService.shutdown();
+        batchService = newBatchService(1, 1, 2);
+        List<CoordinateDTO> coordinates = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            coordinates.add(new CoordinateDTO(-27.4 - i * 0.01, 153.0));
+        }
+
+        assertThatThrownBy(() -> batchService.reverseGeocodeBatch(coordinates))
+                .isInstanceOf(GeocodingUnavailableException.class);
+        verify(cacheRepository, never()).batchInsert(any());
+    }
+
+    @Test
+    void emptyBatchDoesNotTouchTheDatabase() {
+        assertThat(batchService.reverseGeocodeBatch(List.of())).isEmpty();
+
+        verify(cacheRepository, never()).batchInsert(any());
+    }
+
+    private List<GeocodingCache> captureSingleBatchInsert() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<GeocodingCache>> captor = ArgumentCaptor.forClass(List.class);
+        verify(cacheRepository, times(1)).batchInsert(captor.capture());
+        return captor.getValue();
+    }
+
+    private GeocodingBatchService newBatchService(double ratePerSecond, int burst) {
+        return newBatchService(ratePerSecond, burst, 1000);
+    }
+
+    private GeocodingBatchService newBatchService(double ratePerSecond, int burst, int queueCapacity) {
+        GeocodingBatchService service = new GeocodingBatchService(geocodingService, mock(LocationTrackingRepository.class),
+                mock(LocationRepository.class), mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "parallelism", 4);
+        ReflectionTestUtils.setField(service, "ratePerSecond", ratePerSecond);
+        ReflectionTestUtils.setField(service, "burst", burst);
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(service, "backfillParallelism", 1);
+        ReflectionTestUtils.setField(service, "backfillRatePerSecond", 100d);
+        ReflectionTestUtils.setField(service, "backfillPageSize", 200);
+        service.init();
+        return service;
+    }
+}
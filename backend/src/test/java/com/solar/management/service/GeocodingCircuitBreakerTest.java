@@ -0,0 +1,85 @@
+package com.solar.management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeocodingCircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndFailsFast() throws Exception {
+        GeocodingCircuitBreaker breaker = new GeocodingCircuitBreaker(4, 50, 3, 30);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> breaker.call(() -> {
+                attempts.incrementAndGet();
+                throw new IOException("upstream down");
+            })).isInstanceOf(IOException.class);
+        }
+
+        assertThat(breaker.isOpen()).isTrue();
+        assertThatThrownBy(() -> breaker.call(attempts::incrementAndGet))
+                .isInstanceOf(GeocodingUnavailableException.class);
+        assertThat(attempts).hasValue(3);
+        assertThat(breaker.getStats()).containsEntry("circuitState", "OPEN").containsEntry("rejectedOpen", 1L);
+    }
+
+    @Test
+    void successResetsTheFailureCount() throws Exception {
+        GeocodingCircuitBreaker breaker = new GeocodingCircuitBreaker(4, 50, 2, 30);
+
+        assertThatThrownBy(() -> breaker.call(() -> { throw new IOException("blip"); })).isInstanceOf(IOException.class);
+        assertThat(breaker.call(() -> "ok")).isEqualTo("ok");
+        assertThatThrownBy(() -> breaker.call(() -> { throw new IOException("blip"); })).isInstanceOf(IOException.class);
+
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void trialCallAfterOpenPeriodClosesTheCircuit() throws Exception {
+        GeocodingCircuitBreaker breaker = new GeocodingCircuitBreaker(4, 50, 1, 0);
+        assertThatThrownBy(() -> breaker.call(() -> { throw new IOException("down"); })).isInstanceOf(IOException.class);
+        assertThat(breaker.isOpen()).isTrue();
+
+        assertThat(breaker.call(() -> "recovered")).isEqualTo("recovered");
+
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.getStats()).containsEntry("circuitState", "CLOSED");
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondMaxConcurrent() throws Exception {
+        GeocodingCircuitBreaker breaker = new GeocodingCircuitBreaker(1, 20, 5, 30);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                breaker.call(() -> {
+                    running.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                });
+            } catch (Exception ignored) {
+                // Only holds the single permit
+            }
+        });
+        holder.start();
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> breaker.call(() -> "second"))
+                    .isInstanceOf(GeocodingUnavailableException.class);
+            assertThat(breaker.getStats()).containsEntry("rejectedBusy", 1L).containsEntry("inFlight", 1);
+            assertThat(breaker.isOpen()).isFalse();
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.solar.management.service;
+
+import com.solar.management.repository.GeocodingCacheRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeocodingServiceTest {
+
+    private static final int CALLERS = 16;
+
+    private final CountDownLatch providerEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseProvider = new CountDownLatch(1);
+    private final AtomicInteger reverseCalls = new AtomicInteger();
+
+    private GeocodingCacheRepository cacheRepository;
+    private GeocodingService geocodingService;
+
+    @BeforeEach
+    void setUp() {
+        cacheRepository = mock(GeocodingCacheRepository.class);
+        when(cacheRepository.findByLatitudeAndLongitude(anyDouble(), anyDouble())).thenReturn(Optional.empty());
+        when(cacheRepository.findValidByGeohashIn(any(), any())).thenReturn(List.of());
+        when(cacheRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        GeocodingProvider provider = new GeocodingProvider() {
+            @Override
+            public Address reverse(double latitude, double longitude) throws Exception {
+                reverseCalls.incrementAndGet();
+                providerEntered.countDown();
+                if (!releaseProvider.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Provider was never released");
+                }
+                return new Address("1 Solar St, Brisbane QLD 4000", "Brisbane", "QLD", "4000", "Australia",
+                        latitude, longitude);
+            }
+
+            @Override
+            public Address forward(String address) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        geocodingService = new GeocodingService(cacheRepository, new GeocodingResultCache(1000, 60, 300), provider,
+                new GeocodingCircuitBreaker(CALLERS, 200, 5, 30), 15, mock(AddressGazetteer.class), 12, 30, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseProvider.countDown();
+        geocodingService.shutdown();
+    }
+
+    @Test
+    void concurrentMissesForTheSameCoordinatesShareOneProviderCall() throws Exception {
+        ConcurrentLinkedQueue<Map<String, Object>> results = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            // Different raw coordinates that round to the same cache key
+            double jitter = i * 1e-7;
+            Thread caller = new Thread(() -> {
+                try {
+                    results.add(geocodingService.reverseGeocode(-27.46977 + jitter, 153.02511 - jitter));
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+
+        assertThat(providerEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitAllBlocked(callers);
+        releaseProvider.countDown();
+        for (Thread caller : callers) {
+            caller.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(reverseCalls).hasValue(1);
+        verify(cacheRepository, times(1)).findByLatitudeAndLongitude(-27.46977, 153.02511);
+        verify(cacheRepository, times(1)).save(any());
+        assertThat(results).hasSize(CALLERS);
+        Map<String, Object> first = results.peek();
+        assertThat(first).containsEntry("formattedAddress", "1 Solar St, Brisbane QLD 4000");
+        assertThat(results).allSatisfy(result -> assertThat(result).isEqualTo(first));
+    }
+
+    @Test
+    void callersGetIndependentCopiesOfTheSharedResult() throws Exception {
+        releaseProvider.countDown();
+        Map<String, Object> first = geocodingService.reverseGeocode(-27.46977, 153.02511);
+        first.put("formattedAddress", "changed by caller");
+
+        Map<String, Object> second = geocodingService.reverseGeocode(-27.46977, 153.02511);
+
+        assertThat(reverseCalls).hasValue(1);
+        assertThat(second).containsEntry("formattedAddress", "1 Solar St, Brisbane QLD 4000");
+    }
+
+    /**
+     * Wait until every caller has either finished or is parked behind the in-flight lookup
+     */
+    private static void awaitAllBlocked(List<Thread> callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (callers.stream().allMatch(t -> t.getState() == Thread.State.WAITING
+                    || t.getState() == Thread.State.TIMED_WAITING
+                    || t.getState() == Thread.State.TERMINATED)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Callers did not block on the in-flight lookup");
+    }
+}
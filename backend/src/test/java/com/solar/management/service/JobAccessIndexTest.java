@@ -0,0 +1,54 @@
+package com.solar.management.service;
+
+import com.solar.management.repository.JobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobAccessIndexTest {
+
+    private static final long TECHNICIAN_ID = 4L;
+    private static final long JOB_ID = 21L;
+
+    private JobRepository jobRepository;
+    private JobAccessIndex index;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(JobRepository.class);
+        when(jobRepository.findAllAssignments()).thenReturn(List.of());
+        index = new JobAccessIndex(jobRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void assignmentFoundInTheDatabaseIsIndexed() {
+        when(jobRepository.existsAssignment(JOB_ID, TECHNICIAN_ID)).thenReturn(true);
+
+        assertThat(index.isAssigned(TECHNICIAN_ID, JOB_ID)).isTrue();
+        assertThat(index.isAssigned(TECHNICIAN_ID, JOB_ID)).isTrue();
+
+        verify(jobRepository, times(1)).existsAssignment(JOB_ID, TECHNICIAN_ID);
+    }
+
+    @Test
+    void lookupRacingAnUnassignmentDoesNotRestoreIt() {
+        when(jobRepository.existsAssignment(JOB_ID, TECHNICIAN_ID))
+                .thenAnswer(invocation -> {
+                    // The technician is unassigned and the change applied while this lookup is in flight
+                    index.onAssignmentsChanged(new JobAssignmentsChangedEvent(JOB_ID, new long[0]));
+                    return true;
+                })
+                .thenReturn(false);
+
+        assertThat(index.isAssigned(TECHNICIAN_ID, JOB_ID)).isTrue();
+        assertThat(index.isAssigned(TECHNICIAN_ID, JOB_ID)).isFalse();
+    }
+}
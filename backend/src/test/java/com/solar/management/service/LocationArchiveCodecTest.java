@@ -0,0 +1,37 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.TrackPointDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationArchiveCodecTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 7, 30);
+
+    @Test
+    void roundTripsQuantisedValuesIncludingOutOfRangeHeadings() {
+        List<TrackPointDTO> points = List.of(
+                new TrackPointDTO(-33.868820, 151.209295, 4.5, 12.3, -1d, START),
+                new TrackPointDTO(-33.868900, 151.209400, null, 0d, 360d, START.plusSeconds(30)),
+                new TrackPointDTO(-33.869000, 151.209500, 8d, -1d, 725d, START.plusSeconds(60)),
+                new TrackPointDTO(-33.869100, 151.209600, 3.2, null, null, START.plusSeconds(95)));
+
+        List<TrackPointDTO> decoded = LocationArchiveCodec.decode(ByteBuffer.wrap(LocationArchiveCodec.encode(points)));
+
+        assertThat(decoded).isEqualTo(points);
+    }
+
+    @Test
+    void roundsHeadingsToWholeDegreesWithoutNormalising() {
+        List<TrackPointDTO> points = List.of(new TrackPointDTO(0d, 0d, null, null, -12.6, START));
+
+        TrackPointDTO decoded = LocationArchiveCodec.decode(ByteBuffer.wrap(LocationArchiveCodec.encode(points))).get(0);
+
+        assertThat(decoded.getHeading()).isEqualTo(-13d);
+    }
+}
@@ -0,0 +1,113 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.TrackPointDTO;
+import com.solar.management.repository.LocationTrackingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocationArchiveServiceTest {
+
+    private static final long USER_ID = 5L;
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 3);
+
+    @TempDir
+    Path archiveDir;
+
+    private LocationTrackingRepository repository;
+    private LocationArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(LocationTrackingRepository.class);
+        when(repository.findUserDays(any(), any())).thenReturn(Map.of(USER_ID, List.of(DAY)));
+        archiveService = new LocationArchiveService(repository);
+        ReflectionTestUtils.setField(archiveService, "enabled", true);
+        ReflectionTestUtils.setField(archiveService, "archiveDir", archiveDir.toString());
+    }
+
+    @Test
+    void lateRowsAreMergedIntoAnArchivedDay() {
+        List<TrackPointDTO> day = List.of(point(8, 0), point(9, 0), point(10, 0));
+        stubRows(day);
+        archiveService.archiveRange(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+
+        // An offline fix for the same day shows up after the day was archived and its rows deleted
+        stubRows(List.of(point(8, 30)));
+        archiveService.archiveRange(LocalDateTime.MIN, DAY.plusDays(1).atStartOfDay());
+
+        assertThat(readDay()).extracting(TrackPointDTO::getTimestamp)
+                .containsExactly(at(8, 0), at(8, 30), at(9, 0), at(10, 0));
+    }
+
+    @Test
+    void rerunDoesNotDuplicatePoints() {
+        List<TrackPointDTO> day = List.of(point(8, 0), point(9, 0));
+        stubRows(day);
+
+        archiveService.archiveRange(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        archiveService.archiveRange(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+
+        assertThat(readDay()).isEqualTo(day);
+    }
+
+    @Test
+    void rangeIsDecodedOneDayAtATime() throws Exception {
+        stubRows(List.of(point(8, 0), point(9, 0)));
+        archiveService.archiveRange(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        // A later day that cannot be decoded is never opened when the first day is enough
+        Path nextDay = archiveDir.resolve(USER_ID + "/" + DAY.plusDays(1) + ".trk");
+        Files.write(nextDay, new byte[]{1, 2, 3});
+
+        try (Stream<TrackPointDTO> points = archiveService.readRange(USER_ID, DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay())) {
+            assertThat(points.findFirst()).map(TrackPointDTO::getTimestamp).contains(at(8, 0));
+        }
+    }
+
+    @Test
+    void latestPointComesFromTheNewestDay() {
+        LocalDate nextDay = DAY.plusDays(1);
+        when(repository.findUserDays(any(), any())).thenReturn(Map.of(USER_ID, List.of(DAY, nextDay)));
+        when(repository.findTrackPointsInRange(USER_ID, DAY.atStartOfDay(), nextDay.atStartOfDay()))
+                .thenReturn(List.of(point(8, 0), point(17, 0)));
+        TrackPointDTO last = new TrackPointDTO(-27.5, 153.1, 5d, 0d, 0d, nextDay.atTime(7, 15));
+        when(repository.findTrackPointsInRange(USER_ID, nextDay.atStartOfDay(), nextDay.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(new TrackPointDTO(-27.49, 153.09, 5d, 0d, 0d, nextDay.atTime(6, 0)), last));
+
+        archiveService.archiveRange(DAY.atStartOfDay(), nextDay.plusDays(1).atStartOfDay());
+
+        assertThat(archiveService.findLatest(USER_ID)).contains(last);
+        assertThat(archiveService.findLatest(USER_ID + 1)).isEmpty();
+    }
+
+    private List<TrackPointDTO> readDay() {
+        return archiveService.readRange(USER_ID, DAY.atStartOfDay(), DAY.atTime(23, 59, 59)).toList();
+    }
+
+    private void stubRows(List<TrackPointDTO> rows) {
+        when(repository.findTrackPointsInRange(eq(USER_ID), any(), any())).thenReturn(rows);
+    }
+
+    private static TrackPointDTO point(int hour, int minute) {
+        return new TrackPointDTO(-27.47 + hour * 0.001, 153.02, 5d, 10d, 90d, at(hour, minute));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.atTime(hour, minute);
+    }
+}
@@ -0,0 +1,94 @@
+package com.solar.management.service;
+
+import com.solar.management.dto.TrackPointDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrajectorySimplifierTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    void longHistoryIsReducedWhileStreamingAndKeepsEndpoints() {
+        int total = 200_000;
+        CountingIterator source = new CountingIterator(total);
+
+        List<TrackPointDTO> route = TrajectorySimplifier.simplify(stream(source), null, null, null);
+
+        assertThat(source.served).isEqualTo(total);
+        assertThat(route.size()).isLessThanOrEqualTo(TrajectorySimplifier.MAX_WORKING_POINTS);
+        assertThat(route.get(0).getTimestamp()).isEqualTo(START);
+        assertThat(route.get(route.size() - 1).getTimestamp()).isEqualTo(START.plusSeconds(total - 1));
+        for (int i = 1; i < route.size(); i++) {
+            assertThat(route.get(i).getTimestamp()).isAfter(route.get(i - 1).getTimestamp());
+        }
+    }
+
+    @Test
+    void bucketsKeepFirstPointPerBucketAndTheLastPoint() {
+        List<TrackPointDTO> route = TrajectorySimplifier.simplify(stream(new CountingIterator(125)), null, 60, null);
+
+        assertThat(route).extracting(TrackPointDTO::getTimestamp).containsExactly(
+                START, START.plusSeconds(60), START.plusSeconds(120), START.plusSeconds(124));
+    }
+
+    @Test
+    void maxPointsIsEnforcedEvenForAStraightLine() {
+        // Collinear points: Douglas-Peucker drops them all at any tolerance, leaving only the endpoints
+        List<TrackPointDTO> route = TrajectorySimplifier.simplify(stream(new CountingIterator(1_000)), null, null, 10);
+
+        assertThat(route).hasSizeLessThanOrEqualTo(10);
+        assertThat(route.get(0).getTimestamp()).isEqualTo(START);
+    }
+
+    @Test
+    void maxPointsIsEnforcedForAZigzag() {
+        List<TrackPointDTO> zigzag = Stream.iterate(0, i -> i + 1).limit(500)
+                .map(i -> point(i, i % 2 == 0 ? 0 : 0.01, i * 0.001))
+                .toList();
+
+        List<TrackPointDTO> route = TrajectorySimplifier.simplify(zigzag.stream(), 1d, null, 50);
+
+        assertThat(route).hasSizeLessThanOrEqualTo(50);
+        assertThat(route.get(0)).isSameAs(zigzag.get(0));
+        assertThat(route.get(route.size() - 1)).isSameAs(zigzag.get(zigzag.size() - 1));
+    }
+
+    private static Stream<TrackPointDTO> stream(Iterator<TrackPointDTO> iterator) {
+        return Stream.iterate(iterator, Iterator::hasNext, it -> it).map(Iterator::next);
+    }
+
+    private static TrackPointDTO point(int second, double latitude, double longitude) {
+        return new TrackPointDTO(latitude, longitude, 5d, null, null, START.plusSeconds(second));
+    }
+
+    /**
+     * Generates one point per second along a line without materialising the history
+     */
+    private static final class CountingIterator implements Iterator<TrackPointDTO> {
+        private final int total;
+        private int served;
+
+        private CountingIterator(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return served < total;
+        }
+
+        @Override
+        public TrackPointDTO next() {
+            TrackPointDTO point = point(served, -33.8 + served * 1e-6, 151.2 + served * 1e-6);
+            served++;
+            return point;
+        }
+    }
+}
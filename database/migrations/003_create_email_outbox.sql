@@ -0,0 +1,25 @@
+-- Migration: Create email_outbox table for asynchronous invoice email delivery
+-- Date: 2026-10-18
+-- Description: Persistent queue of outbound emails. Rows are inserted when an invoice is generated
+--              and delivered in batches by the background EmailDeliveryWorker with retry/backoff
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    invoice_id BIGINT REFERENCES invoices(id) ON DELETE SET NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    attachment_path VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    sent_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox(status, next_attempt_at);
+
+COMMENT ON TABLE email_outbox IS 'Outbound email queue (PENDING -> SENDING -> SENT, or DEAD after max attempts)';
+COMMENT ON COLUMN email_outbox.next_attempt_at IS 'Earliest time the message may be claimed (exponential backoff on failure)';
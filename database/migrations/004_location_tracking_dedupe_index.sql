@@ -0,0 +1,17 @@
+-- Migration: Unique (user, device, timestamp) index on location_tracking
+-- Date: 2026-10-18
+-- Description: Lets the batched ingest endpoint resend buffered points idempotently.
+--              Inserts use ON CONFLICT DO NOTHING, which relies on this index.
+--              NULLS NOT DISTINCT (PostgreSQL 15+) makes points without a device id dedupe too.
+
+-- Remove existing duplicates, keeping the earliest row
+DELETE FROM location_tracking a
+USING location_tracking b
+WHERE a.user_id = b.user_id
+  AND a.timestamp = b.timestamp
+  AND a.device_id IS NOT DISTINCT FROM b.device_id
+  AND a.id > b.id;
+
+DROP INDEX IF EXISTS uk_location_tracking_user_device_ts;
+CREATE UNIQUE INDEX uk_location_tracking_user_device_ts
+    ON location_tracking(user_id, device_id, timestamp) NULLS NOT DISTINCT;
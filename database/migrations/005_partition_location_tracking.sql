@@ -0,0 +1,89 @@
+-- Migration: Monthly range partitioning for location_tracking, plus trip summaries
+-- Date: 2026-10-18
+-- Description: Rebuilds location_tracking as a table partitioned by month on timestamp so that
+--              time-bounded queries prune to the relevant partitions and retention can drop whole
+--              partitions instead of deleting rows. Each partition has its own small indexes, so
+--              insert and index-maintenance cost stays flat as data accumulates.
+--              LocationRetentionService creates future partitions and rolls expired partitions
+--              into location_trip_summaries before dropping them.
+
+BEGIN;
+
+ALTER TABLE location_tracking RENAME TO location_tracking_legacy;
+ALTER INDEX IF EXISTS location_tracking_pkey RENAME TO location_tracking_legacy_pkey;
+ALTER INDEX IF EXISTS uk_location_tracking_user_device_ts RENAME TO uk_location_tracking_legacy_user_device_ts;
+ALTER INDEX IF EXISTS idx_user_timestamp RENAME TO idx_legacy_user_timestamp;
+ALTER INDEX IF EXISTS idx_location_tracking_user_timestamp RENAME TO idx_legacy_location_tracking_user_timestamp;
+
+-- Same columns, types and defaults as the existing table (including the id sequence);
+-- the partition key must be part of the primary key
+CREATE TABLE location_tracking (
+    LIKE location_tracking_legacy INCLUDING DEFAULTS,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE INDEX idx_user_timestamp ON location_tracking(user_id, timestamp);
+CREATE UNIQUE INDEX uk_location_tracking_user_device_ts
+    ON location_tracking(user_id, device_id, timestamp) NULLS NOT DISTINCT;
+
+-- Catches points with implausible device clocks; should stay (nearly) empty
+CREATE TABLE location_tracking_default PARTITION OF location_tracking DEFAULT;
+
+-- One partition per month from the oldest stored point through three months ahead
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc('month', CURRENT_DATE + INTERVAL '3 months')::date;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(timestamp))::date, date_trunc('month', CURRENT_DATE)::date)
+    INTO month_start
+    FROM location_tracking_legacy;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF location_tracking FOR VALUES FROM (%L) TO (%L)',
+            'location_tracking_y' || to_char(month_start, 'YYYY') || 'm' || to_char(month_start, 'MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO location_tracking (id, user_id, latitude, longitude, accuracy, altitude, speed, heading,
+                               address, timestamp, device_id, notes, created_at)
+SELECT id, user_id, latitude, longitude, accuracy, altitude, speed, heading,
+       address, timestamp, device_id, notes, created_at
+FROM location_tracking_legacy;
+
+-- Keep the id sequence when the legacy table is dropped
+ALTER SEQUENCE location_tracking_id_seq OWNED BY location_tracking.id;
+
+SELECT setval(pg_get_serial_sequence('location_tracking', 'id'),
+              COALESCE((SELECT MAX(id) FROM location_tracking), 0) + 1, false);
+
+DROP TABLE location_tracking_legacy;
+
+-- Compact per-trip rollups of raw points that have aged out of retention
+CREATE TABLE IF NOT EXISTS location_trip_summaries (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    device_id VARCHAR(255),
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    start_latitude DOUBLE PRECISION NOT NULL,
+    start_longitude DOUBLE PRECISION NOT NULL,
+    end_latitude DOUBLE PRECISION NOT NULL,
+    end_longitude DOUBLE PRECISION NOT NULL,
+    min_latitude DOUBLE PRECISION NOT NULL,
+    max_latitude DOUBLE PRECISION NOT NULL,
+    min_longitude DOUBLE PRECISION NOT NULL,
+    max_longitude DOUBLE PRECISION NOT NULL,
+    point_count INTEGER NOT NULL,
+    distance_km DOUBLE PRECISION NOT NULL,
+    max_speed DOUBLE PRECISION,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_location_trip_user_start UNIQUE (user_id, start_time)
+);
+
+COMMIT;
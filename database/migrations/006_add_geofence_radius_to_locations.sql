@@ -0,0 +1,6 @@
+-- Migration: Add geofence_radius to locations
+-- Date: 2026-10-18
+-- Description: Per-site geofence radius in metres used by the geofence engine to detect
+--              technician arrival and departure. NULL falls back to app.geofence.default-radius-meters.
+
+ALTER TABLE locations ADD COLUMN IF NOT EXISTS geofence_radius DOUBLE PRECISION;
@@ -0,0 +1,7 @@
+-- Migration: Add FUEL_COST_PER_KM parameter
+-- Date: 2026-10-18
+-- Description: Cost per kilometre applied to tracked travel distance when travel logs close
+
+INSERT INTO parameters (parameter_key, parameter_value, description, type) VALUES
+('FUEL_COST_PER_KM', '0.25', 'Fuel cost per kilometre travelled in AUD', 'DECIMAL')
+ON CONFLICT (parameter_key) DO NOTHING;
@@ -0,0 +1,31 @@
+-- Migration: Create work_log_suggestions table
+-- Date: 2026-10-18
+-- Description: Work log start/end corrections proposed from geofence dwell time, pending review
+
+CREATE TABLE IF NOT EXISTS work_log_suggestions (
+    id BIGSERIAL PRIMARY KEY,
+    work_log_id BIGINT NOT NULL REFERENCES work_logs(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL,
+    job_id BIGINT NOT NULL,
+    work_date DATE NOT NULL,
+    current_start_time TIME NOT NULL,
+    current_end_time TIME NOT NULL,
+    suggested_start_time TIME NOT NULL,
+    suggested_end_time TIME NOT NULL,
+    first_arrival TIMESTAMP NOT NULL,
+    last_departure TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    reviewed_by VARCHAR(255),
+    reviewed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_work_log_suggestions_work_log ON work_log_suggestions(work_log_id);
+CREATE INDEX IF NOT EXISTS idx_work_log_suggestions_status ON work_log_suggestions(status, work_date);
+
+-- At most one suggestion awaiting review per work log
+CREATE UNIQUE INDEX IF NOT EXISTS uk_work_log_suggestions_pending
+    ON work_log_suggestions(work_log_id) WHERE status = 'PENDING';
+
+COMMENT ON TABLE work_log_suggestions IS 'Dwell-based work log time corrections (PENDING -> ACCEPTED or REJECTED)';
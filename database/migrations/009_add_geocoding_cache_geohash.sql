@@ -0,0 +1,11 @@
+-- Migration: Add geohash cell to geocoding_cache
+-- Date: 2026-10-18
+-- Description: Cached reverse geocoding results are indexed by geohash cell (precision 7, ~150 m)
+--              so lookups can reuse the nearest cached address within a small radius.
+--              Existing rows are backfilled by the application at startup.
+
+ALTER TABLE geocoding_cache ADD COLUMN IF NOT EXISTS geohash VARCHAR(12);
+
+CREATE INDEX IF NOT EXISTS idx_geocoding_geohash ON geocoding_cache(geohash);
+
+COMMENT ON COLUMN geocoding_cache.geohash IS 'Geohash of (latitude, longitude) at precision 7, used for proximity lookups';
@@ -14,6 +14,7 @@ import JobCreate from './pages/JobCreate';
 import JobEdit from './pages/JobEdit';
 import StockManagement from './pages/StockManagement';
 import LocationTracking from './pages/LocationTracking';
+import FleetMap from './pages/FleetMap';
 import WorkLogs from './pages/WorkLogs';
 import Reports from './pages/Reports';
 import SolarOptimizer from './pages/SolarOptimizer';
@@ -120,6 +121,7 @@ const App: React.FC = () => {
                     <Route path="/jobs/edit/:id" element={<JobEdit />} />
                     <Route path="/stock" element={<StockManagement />} />
                     <Route path="/tracking" element={<LocationTracking />} />
+                    <Route path="/fleet" element={<FleetMap />} />
                     <Route path="/worklogs" element={<WorkLogs />} />
                     <Route path="/reports" element={<Reports />} />
                     <Route path="/solar-optimizer" element={<SolarOptimizer />} />
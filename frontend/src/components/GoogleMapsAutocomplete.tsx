@@ -1,6 +1,7 @@
-import React, { useState } from 'react';
-import { Autocomplete } from '@react-google-maps/api';
-import { TextField } from '@mui/material';
+import React, { useEffect, useState } from 'react';
+import { Autocomplete, CircularProgress, TextField } from '@mui/material';
+import { geocodingApi } from '../services/api';
+import { AddressSuggestion } from '../types';
 
 interface PlaceResult {
   address: string;
@@ -21,6 +22,10 @@ interface GoogleMapsAutocompleteProps {
   defaultValue?: string;
 }
 
+// Suggestions come from the backend gazetteer; wait for a pause in typing before asking
+const MIN_QUERY_LENGTH = 3;
+const DEBOUNCE_MS = 250;
+
 const GoogleMapsAutocomplete: React.FC<GoogleMapsAutocompleteProps> = ({
   onPlaceSelected,
   label = "Search Location",
@@ -29,79 +34,87 @@ const GoogleMapsAutocomplete: React.FC<GoogleMapsAutocompleteProps> = ({
   required = false,
   defaultValue = ''
 }) => {
-  const [autocomplete, setAutocomplete] = useState<google.maps.places.Autocomplete | null>(null);
   const [inputValue, setInputValue] = useState(defaultValue);
+  const [options, setOptions] = useState<AddressSuggestion[]>([]);
+  const [loading, setLoading] = useState(false);
 
-  const onLoad = (autocompleteInstance: google.maps.places.Autocomplete) => {
-    setAutocomplete(autocompleteInstance);
-  };
-
-  const onPlaceChanged = () => {
-    if (autocomplete) {
-      const place = autocomplete.getPlace();
-
-      if (place.geometry && place.geometry.location) {
-        const addressComponents = place.address_components || [];
-
-        // Extract address components
-        let street = '';
-        let city = '';
-        let state = '';
-        let postalCode = '';
-        let country = '';
-
-        addressComponents.forEach((component) => {
-          const types = component.types;
+  useEffect(() => {
+    const query = inputValue.trim();
+    if (query.length < MIN_QUERY_LENGTH) {
+      setOptions([]);
+      return;
+    }
 
-          if (types.includes('street_number')) {
-            street = component.long_name + ' ';
-          }
-          if (types.includes('route')) {
-            street += component.long_name;
-          }
-          if (types.includes('locality')) {
-            city = component.long_name;
-          }
-          if (types.includes('administrative_area_level_1')) {
-            state = component.short_name;
-          }
-          if (types.includes('postal_code')) {
-            postalCode = component.long_name;
-          }
-          if (types.includes('country')) {
-            country = component.long_name;
-          }
-        });
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      setLoading(true);
+      try {
+        const response = await geocodingApi.autocomplete(query);
+        if (!cancelled) {
+          setOptions(response.data);
+        }
+      } catch (err) {
+        console.error('Failed to load address suggestions:', err);
+      } finally {
+        if (!cancelled) {
+          setLoading(false);
+        }
+      }
+    }, DEBOUNCE_MS);
 
-        const result: PlaceResult = {
-          address: street || place.formatted_address || '',
-          city,
-          state,
-          postalCode,
-          country,
-          latitude: place.geometry.location.lat(),
-          longitude: place.geometry.location.lng(),
-        };
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [inputValue]);
 
-        setInputValue(place.formatted_address || '');
-        onPlaceSelected(result);
-      }
-    }
+  const onSuggestionSelected = (suggestion: AddressSuggestion) => {
+    onPlaceSelected({
+      address: suggestion.formattedAddress,
+      city: suggestion.city || '',
+      state: suggestion.state || '',
+      postalCode: suggestion.postalCode || '',
+      country: suggestion.country || '',
+      latitude: suggestion.lat,
+      longitude: suggestion.lng,
+    });
   };
 
   return (
-    <Autocomplete onLoad={onLoad} onPlaceChanged={onPlaceChanged}>
-      <TextField
-        fullWidth
-        label={label}
-        value={inputValue}
-        onChange={(e) => setInputValue(e.target.value)}
-        error={error}
-        helperText={helperText}
-        required={required}
-        placeholder="Start typing an address..."
-      />
-    </Autocomplete>
+    <Autocomplete<AddressSuggestion, false, false, true>
+      freeSolo
+      options={options}
+      loading={loading}
+      filterOptions={(x) => x}
+      getOptionLabel={(option) => typeof option === 'string' ? option : option.formattedAddress}
+      inputValue={inputValue}
+      onInputChange={(_, value) => setInputValue(value)}
+      onChange={(_, value) => {
+        if (value && typeof value !== 'string') {
+          onSuggestionSelected(value);
+        }
+      }}
+      renderInput={(params) => (
+        <TextField
+          {...params}
+          fullWidth
+          label={label}
+          error={error}
+          helperText={helperText}
+          required={required}
+          placeholder="Start typing an address..."
+          InputProps={{
+            ...params.InputProps,
+            endAdornment: (
+              <>
+                {loading && <CircularProgress color="inherit" size={20} />}
+                {params.InputProps.endAdornment}
+              </>
+            ),
+          }}
+        />
+      )}
+    />
   );
 };
 
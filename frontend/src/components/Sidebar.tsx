@@ -21,6 +21,7 @@ import {
   Work as WorkIcon,
   Inventory as InventoryIcon,
   MyLocation as LocationIcon,
+  Map as FleetIcon,
   Schedule as ScheduleIcon,
   Assessment as ReportIcon,
   WbSunny as SolarIcon,
@@ -30,11 +31,12 @@ import { useAuth } from './AuthProvider';
 
 const drawerWidth = 240;
 
-const menuItems = [
+const menuItems: { text: string; icon: React.ReactNode; path: string; roles?: string[] }[] = [
   { text: 'Dashboard', icon: <DashboardIcon />, path: '/dashboard' },
   { text: 'Jobs', icon: <WorkIcon />, path: '/jobs' },
   { text: 'Stock Management', icon: <InventoryIcon />, path: '/stock' },
   { text: 'Location Tracking', icon: <LocationIcon />, path: '/tracking' },
+  { text: 'Fleet Map', icon: <FleetIcon />, path: '/fleet', roles: ['ADMIN', 'MANAGER'] },
   { text: 'Work Logs', icon: <ScheduleIcon />, path: '/worklogs' },
   { text: 'Solar Optimizer', icon: <SolarIcon />, path: '/solar-optimizer' },
   { text: 'Reports', icon: <ReportIcon />, path: '/reports' },
@@ -43,7 +45,7 @@ const menuItems = [
 const Sidebar: React.FC = () => {
   const navigate = useNavigate();
   const location = useLocation();
-  const { user, logout } = useAuth();
+  const { user, logout, hasRole } = useAuth();
 
   return (
     <Drawer
@@ -69,7 +71,7 @@ const Sidebar: React.FC = () => {
       </Toolbar>
       <Divider />
       <List>
-        {menuItems.map((item) => (
+        {menuItems.filter((item) => !item.roles || item.roles.some(hasRole)).map((item) => (
           <ListItem key={item.text} disablePadding>
             <ListItemButton
               selected={location.pathname === item.path}
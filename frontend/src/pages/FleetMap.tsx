@@ -0,0 +1,124 @@
+// frontend/src/pages/FleetMap.tsx
+
+import React, { useEffect, useState } from 'react';
+import { Box, Paper, Typography } from '@mui/material';
+import { useLoadScript } from '@react-google-maps/api';
+import CircularProgress from '@mui/material/CircularProgress';
+import Alert from '@mui/material/Alert';
+import GoogleMapDisplay from '../components/GoogleMapDisplay';
+import { userApi } from '../services/api';
+import { subscribeToFleet } from '../services/fleetStream';
+import { LatestPosition, User } from '../types';
+
+const libraries: ("places" | "drawing" | "geometry")[] = ["places"];
+
+const FleetMap: React.FC = () => {
+  const [positions, setPositions] = useState<Record<number, LatestPosition>>({});
+  const [users, setUsers] = useState<Record<number, User>>({});
+  const [streamError, setStreamError] = useState(false);
+
+  const { isLoaded, loadError } = useLoadScript({
+    googleMapsApiKey: process.env.REACT_APP_GOOGLE_MAPS_API_KEY || '',
+    libraries,
+  });
+
+  useEffect(() => {
+    userApi.getAll()
+      .then((response) => {
+        const byId: Record<number, User> = {};
+        response.data.forEach((user) => {
+          byId[user.id] = user;
+        });
+        setUsers(byId);
+      })
+      .catch((error) => console.error('Failed to load users:', error));
+  }, []);
+
+  useEffect(() => {
+    const toMap = (list: LatestPosition[]) => {
+      const byUser: Record<number, LatestPosition> = {};
+      list.forEach((position) => {
+        byUser[position.userId] = position;
+      });
+      return byUser;
+    };
+
+    return subscribeToFleet({
+      onSnapshot: (snapshot) => {
+        setStreamError(false);
+        setPositions(toMap(snapshot));
+      },
+      onPositions: (updates) => setPositions((current) => ({ ...current, ...toMap(updates) })),
+      onError: (error) => {
+        console.error('Fleet stream disconnected:', error);
+        setStreamError(true);
+      },
+    });
+  }, []);
+
+  if (loadError) {
+    return (
+      <Box sx={{ p: 3 }}>
+        <Alert severity="error">
+          Error loading Google Maps. Please check your API key and try again.
+        </Alert>
+      </Box>
+    );
+  }
+
+  if (!isLoaded) {
+    return (
+      <Box sx={{ display: 'flex', justifyContent: 'center', alignItems: 'center', minHeight: '400px' }}>
+        <CircularProgress />
+      </Box>
+    );
+  }
+
+  const fleet = Object.values(positions);
+  const nameOf = (userId: number) => {
+    const user = users[userId];
+    return user ? `${user.firstName} ${user.lastName}` : `User ${userId}`;
+  };
+
+  return (
+    <Box p={3}>
+      <Typography variant="h4" gutterBottom>
+        Fleet Map
+      </Typography>
+      <Typography variant="body2" color="textSecondary" gutterBottom>
+        {fleet.length} technicians with a recent position; updates arrive live
+      </Typography>
+      {streamError && (
+        <Alert severity="warning" sx={{ mb: 2 }}>
+          Live updates are disconnected; reconnecting...
+        </Alert>
+      )}
+      <Paper sx={{ height: 600, overflow: 'hidden' }}>
+        <GoogleMapDisplay
+          zoom={10}
+          height="600px"
+          markers={fleet.map((position) => ({
+            id: position.userId,
+            position: { lat: position.latitude, lng: position.longitude },
+            title: nameOf(position.userId),
+            info: (
+              <Box>
+                <Typography variant="subtitle2">{nameOf(position.userId)}</Typography>
+                <Typography variant="caption">
+                  {new Date(position.timestamp).toLocaleString()}
+                </Typography>
+                {position.speed && (
+                  <Typography variant="caption" display="block">
+                    Speed: {(position.speed * 3.6).toFixed(1)} km/h
+                  </Typography>
+                )}
+              </Box>
+            ),
+          }))}
+        />
+      </Paper>
+    </Box>
+  );
+};
+
+export default FleetMap;
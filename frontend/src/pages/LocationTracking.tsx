@@ -1,6 +1,7 @@
 // frontend/src/pages/LocationTracking.tsx
 
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
+import axios from 'axios';
 import {
   Box,
   Button,
@@ -16,7 +17,7 @@ import {
 } from '@mui/material';
 import { MyLocation as MyLocationIcon, Refresh as RefreshIcon } from '@mui/icons-material';
 import { locationTrackingApi, userApi } from '../services/api';
-import { LocationTracking, User } from '../types';
+import { LatestPosition, LocationTracking, User } from '../types';
 import GoogleMapDisplay from '../components/GoogleMapDisplay';
 import { useLoadScript } from '@react-google-maps/api';
 import CircularProgress from '@mui/material/CircularProgress';
@@ -27,10 +28,13 @@ const libraries: ("places" | "drawing" | "geometry")[] = ["places"];
 const LocationTrackingPage: React.FC = () => {
   const [users, setUsers] = useState<User[]>([]);
   const [selectedUserId, setSelectedUserId] = useState<number | null>(null);
-  const [currentLocation, setCurrentLocation] = useState<LocationTracking | null>(null);
+  const [currentLocation, setCurrentLocation] = useState<LatestPosition | null>(null);
   const [locationHistory, setLocationHistory] = useState<LocationTracking[]>([]);
   const [loading, setLoading] = useState(false);
   const [trackingActive, setTrackingActive] = useState(false);
+  // Set while the server is shedding load (503); only the newest fix is kept until it fires
+  const retryTimerRef = useRef<ReturnType<typeof setTimeout> | null>(null);
+  const heldPositionRef = useRef<GeolocationPosition | null>(null);
 
   const { isLoaded, loadError } = useLoadScript({
     googleMapsApiKey: process.env.REACT_APP_GOOGLE_MAPS_API_KEY || '',
@@ -96,7 +100,7 @@ const LocationTrackingPage: React.FC = () => {
     // Get initial position
     navigator.geolocation.getCurrentPosition(
       (position) => {
-        recordLocation(position.coords);
+        recordLocation(position);
       },
       (error) => {
         console.error('Error getting location:', error);
@@ -107,7 +111,7 @@ const LocationTrackingPage: React.FC = () => {
     // Watch position changes
     const watchId = navigator.geolocation.watchPosition(
       (position) => {
-        recordLocation(position.coords);
+        recordLocation(position);
       },
       (error) => {
         console.error('Error watching location:', error);
@@ -129,11 +133,22 @@ const LocationTrackingPage: React.FC = () => {
       navigator.geolocation.clearWatch((window as any).geoWatchId);
       (window as any).geoWatchId = null;
     }
+    if (retryTimerRef.current) {
+      clearTimeout(retryTimerRef.current);
+      retryTimerRef.current = null;
+    }
+    heldPositionRef.current = null;
   };
 
-  const recordLocation = async (coords: GeolocationCoordinates) => {
+  const recordLocation = async (position: GeolocationPosition) => {
     if (!selectedUserId) return;
 
+    if (retryTimerRef.current) {
+      heldPositionRef.current = position;
+      return;
+    }
+
+    const { coords } = position;
     try {
       await locationTrackingApi.recordLocationSimple(selectedUserId, {
         latitude: coords.latitude,
@@ -143,9 +158,30 @@ const LocationTrackingPage: React.FC = () => {
         speed: coords.speed || undefined,
         heading: coords.heading || undefined,
       });
-      loadUserLocation();
-      loadLocationHistory();
+      // Accepted (202) but written by a later flush, so show the fix we sent instead of re-reading it
+      setCurrentLocation({
+        userId: selectedUserId,
+        latitude: coords.latitude,
+        longitude: coords.longitude,
+        accuracy: coords.accuracy,
+        speed: coords.speed ?? undefined,
+        heading: coords.heading ?? undefined,
+        timestamp: new Date(position.timestamp).toISOString(),
+      });
     } catch (error) {
+      if (axios.isAxiosError(error) && error.response?.status === 503) {
+        const retryAfterSeconds = Number(error.response.headers['retry-after']) || 5;
+        heldPositionRef.current = position;
+        retryTimerRef.current = setTimeout(() => {
+          retryTimerRef.current = null;
+          const held = heldPositionRef.current;
+          heldPositionRef.current = null;
+          if (held) {
+            recordLocation(held);
+          }
+        }, retryAfterSeconds * 1000);
+        return;
+      }
       console.error('Failed to record location:', error);
     }
   };
@@ -1,7 +1,7 @@
 // frontend/src/services/api.ts
 
 import axios from 'axios';
-import { Job, JobImage, TravelLog, LocationTracking, StockItem, Location, User, WorkLog, Invoice } from '../types';
+import { Job, JobImage, TravelLog, LocationTracking, LatestPosition, StockItem, Location, User, WorkLog, Invoice, AddressSuggestion } from '../types';
 import keycloak from '../keycloak';
 
 // Use relative URL so nginx can proxy to backend
@@ -63,8 +63,9 @@ export const jobApi = {
 
 // Location Tracking APIs
 export const locationTrackingApi = {
+  // Both record endpoints answer 202 Accepted with no body; points are written by a batched flush
   recordLocation: (tracking: Partial<LocationTracking>) => 
-    api.post<LocationTracking>('/location-tracking', tracking),
+    api.post<void>('/location-tracking', tracking),
   recordLocationSimple: (userId: number, params: {
     latitude: number;
     longitude: number;
@@ -73,8 +74,8 @@ export const locationTrackingApi = {
     speed?: number;
     heading?: number;
     deviceId?: string;
-  }) => api.post<LocationTracking>(`/location-tracking/user/${userId}`, null, { params }),
-  getLatest: (userId: number) => api.get<LocationTracking>(`/location-tracking/user/${userId}/latest`),
+  }) => api.post<void>(`/location-tracking/user/${userId}`, null, { params }),
+  getLatest: (userId: number) => api.get<LatestPosition>(`/location-tracking/user/${userId}/latest`),
   getHistory: (userId: number) => api.get<LocationTracking[]>(`/location-tracking/user/${userId}/history`),
   getHistoryRange: (userId: number, start: string, end: string) => 
     api.get<LocationTracking[]>(`/location-tracking/user/${userId}/history/range`, {
@@ -239,6 +240,8 @@ export const geocodingApi = {
     api.post('/geocoding/reverse', null, {
       params: { latitude: lat, longitude: lng }
     }),
+  autocomplete: (q: string, limit = 8) =>
+    api.get<AddressSuggestion[]>('/geocoding/autocomplete', { params: { q, limit } }),
   cleanupCache: () => api.delete('/geocoding/cache/cleanup'),
 };
 
@@ -0,0 +1,97 @@
+// frontend/src/services/fleetStream.ts
+
+import keycloak from '../keycloak';
+import { LatestPosition } from '../types';
+
+const FLEET_STREAM_URL = '/api/location-tracking/fleet/stream';
+const RECONNECT_DELAY_MS = 5000;
+
+interface FleetStreamHandlers {
+  // Whole fleet, sent first on every (re)connect
+  onSnapshot: (positions: LatestPosition[]) => void;
+  // Coalesced changes since the last update
+  onPositions: (positions: LatestPosition[]) => void;
+  onError?: (error: unknown) => void;
+}
+
+/**
+ * Subscribe to live fleet positions; reconnects with a fresh token until the returned function is called
+ * EventSource cannot send the Authorization header, so the Server-Sent Events are read with fetch.
+ */
+export const subscribeToFleet = (handlers: FleetStreamHandlers): (() => void) => {
+  const controller = new AbortController();
+  let reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+
+  const dispatch = (block: string) => {
+    let event = 'message';
+    const data: string[] = [];
+    block.split('\n').forEach((line) => {
+      if (line.startsWith('event:')) {
+        event = line.slice(6).trim();
+      } else if (line.startsWith('data:')) {
+        data.push(line.slice(5));
+      }
+      // Lines starting with ':' are heartbeats
+    });
+    if (data.length === 0) {
+      return;
+    }
+    const positions: LatestPosition[] = JSON.parse(data.join('\n'));
+    if (event === 'snapshot') {
+      handlers.onSnapshot(positions);
+    } else if (event === 'positions') {
+      handlers.onPositions(positions);
+    }
+  };
+
+  const connect = async () => {
+    try {
+      await keycloak.updateToken(30);
+      const response = await fetch(FLEET_STREAM_URL, {
+        headers: {
+          Accept: 'text/event-stream',
+          Authorization: `Bearer ${keycloak.token}`,
+        },
+        signal: controller.signal,
+      });
+      if (!response.ok || !response.body) {
+        throw new Error(`Fleet stream failed with status ${response.status}`);
+      }
+
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) {
+          break;
+        }
+        buffer += decoder.decode(value, { stream: true }).replace(/\r\n/g, '\n');
+        let end = buffer.indexOf('\n\n');
+        while (end >= 0) {
+          dispatch(buffer.slice(0, end));
+          buffer = buffer.slice(end + 2);
+          end = buffer.indexOf('\n\n');
+        }
+      }
+    } catch (error) {
+      if (controller.signal.aborted) {
+        return;
+      }
+      handlers.onError?.(error);
+    }
+    // The server closes the stream when its emitter times out; reconnect for a new snapshot
+    if (!controller.signal.aborted) {
+      reconnectTimer = setTimeout(connect, RECONNECT_DELAY_MS);
+    }
+  };
+
+  connect();
+
+  return () => {
+    controller.abort();
+    if (reconnectTimer) {
+      clearTimeout(reconnectTimer);
+    }
+  };
+};
@@ -74,6 +74,7 @@ export interface Location {
   country?: string;
   latitude: number;
   longitude: number;
+  geofenceRadius?: number;
   contactPerson?: string;
   contactPhone?: string;
   notes?: string;
@@ -169,6 +170,26 @@ export interface LocationTracking {
   createdAt: string;
 }
 
+export interface LatestPosition {
+  userId: number;
+  latitude: number;
+  longitude: number;
+  accuracy?: number;
+  speed?: number;
+  heading?: number;
+  timestamp: string;
+}
+
+export interface AddressSuggestion {
+  formattedAddress: string;
+  city?: string;
+  state?: string;
+  postalCode?: string;
+  country?: string;
+  lat: number;
+  lng: number;
+}
+
 export enum WorkType {
   BATTERY_INSTALLATION = 'BATTERY_INSTALLATION',
   INVERTER_INSTALLATION = 'INVERTER_INSTALLATION',
@@ -228,7 +249,6 @@ export interface Invoice {
   technicianPhone?: string;
   bsb?: string;
   accountNumber?: string;
-  workLogs: WorkLog[];
   subtotal: number;
   gstRate: number;
   gstAmount: number;